@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.benchmark;
+
+import com.github.omadahealth.circularbarpager.library.core.ArcGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The geometry recomputed by CircularBar when its size, padding or arc widths change:
+ * the rects of the fill circle, the reached arc and the outline arc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ArcGeometryBenchmark {
+
+    private final float[] mFillRect = new float[4];
+    private final float[] mReachedRect = new float[4];
+    private final float[] mOutlineRect = new float[4];
+    private int mSize = 400;
+
+    @Benchmark
+    public float calculateDrawRects() {
+        //Vary the size so that nothing is hoisted out of the loop
+        mSize = mSize == 400 ? 401 : 400;
+        float reachedWidth = 15f;
+        float outlineWidth = 3f;
+        ArcGeometry.getArcRect(mSize, mSize + 100, 10, 10, 10, 10, reachedWidth, mFillRect);
+        ArcGeometry.getArcRect(mSize, mSize + 100, 10, 10, 10, 10, reachedWidth / 2, mReachedRect);
+        return ArcGeometry.getArcRect(mSize, mSize + 100, 10, 10, 10, 10, outlineWidth / 2, mOutlineRect)
+                + mFillRect[ArcGeometry.LEFT] + mReachedRect[ArcGeometry.RIGHT];
+    }
+}
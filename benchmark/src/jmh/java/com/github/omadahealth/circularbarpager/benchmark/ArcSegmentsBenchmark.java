@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.benchmark;
+
+import com.github.omadahealth.circularbarpager.library.core.ArcRuns;
+import com.github.omadahealth.circularbarpager.library.core.ArcSegments;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work done by CircularBar on each frame of a progress animation: bounding the progress,
+ * updating the angles of the segments and merging them into the runs to draw
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ArcSegmentsBenchmark {
+
+    private static final int MAX = 100;
+
+    /**
+     * The number of progress values cycled through, as in an animation
+     */
+    private static final int FRAMES = 64;
+
+    @Param({"1", "12", "365", "10000"})
+    public int segmentCount;
+
+    @Param({"true", "false"})
+    public boolean clockwise;
+
+    private final ArcSegments mSegments = new ArcSegments();
+    private final ArcRuns mReachedRuns = new ArcRuns();
+    private final ArcRuns mOutlineRuns = new ArcRuns();
+    private final float[] mProgressValues = new float[FRAMES];
+    private float mProgress;
+    private int mFrame;
+
+    @Setup
+    public void setUp() {
+        boolean[] pieces = new boolean[segmentCount];
+        for (int index = 0; index < segmentCount; index++) {
+            pieces[index] = index % 3 != 0;
+        }
+        mSegments.setFilled(pieces);
+        //Counter clockwise progress is negative
+        float sign = clockwise ? 1 : -1;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            mProgressValues[frame] = sign * (1 + frame * (MAX - 2) / (float) FRAMES);
+        }
+        mProgress = mProgressValues[0];
+        mSegments.updateAngles(mProgress, MAX);
+        mSegments.buildRuns(mReachedRuns, mOutlineRuns);
+    }
+
+    private float nextProgress() {
+        mFrame = (mFrame + 1) % FRAMES;
+        return mProgressValues[mFrame];
+    }
+
+    /**
+     * The equivalent of CircularBar.setProgress
+     */
+    @Benchmark
+    public float setProgress() {
+        mProgress = ArcSegments.enforceBounds(mProgress, nextProgress(), MAX);
+        mSegments.updateAngles(mProgress, MAX);
+        return mSegments.getReachedSweep(0);
+    }
+
+    /**
+     * setProgress followed by the merging of the arcs done before drawing
+     */
+    @Benchmark
+    public int setProgressAndBuildRuns() {
+        mProgress = ArcSegments.enforceBounds(mProgress, nextProgress(), MAX);
+        mSegments.updateAngles(mProgress, MAX);
+        mSegments.buildRuns(mReachedRuns, mOutlineRuns);
+        return mReachedRuns.size() + mOutlineRuns.size();
+    }
+
+    /**
+     * Changing the segments, which computes their start angles again
+     */
+    @Benchmark
+    public float setSegments() {
+        mSegments.setFilled(new boolean[segmentCount + (mFrame++ & 1)]);
+        mSegments.updateAngles(mProgress, MAX);
+        return mSegments.getReachedSweep(0);
+    }
+}
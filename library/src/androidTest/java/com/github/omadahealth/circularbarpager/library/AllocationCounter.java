@@ -0,0 +1,58 @@
+package com.github.omadahealth.circularbarpager.library;
+
+import android.os.Debug;
+
+/**
+ * Counts the objects and bytes allocated by the current thread while running an action
+ * many times, after a few warm up runs, to check that a hot path reached its steady state
+ * without allocating.
+ */
+public class AllocationCounter {
+
+    /**
+     * The runs before counting, for lazy initializations and caches to fill
+     */
+    private static final int WARM_UP = 10;
+
+    private int mCount;
+
+    private int mSize;
+
+    /**
+     * Runs the action {@link #WARM_UP} times, then counts the allocations of the next runs
+     *
+     * @param action     The action to measure, allocated before the counting starts
+     * @param iterations The number of runs counted
+     * @return This counter
+     */
+    @SuppressWarnings("deprecation")
+    public AllocationCounter run(Runnable action, int iterations) {
+        for (int i = 0; i < WARM_UP; i++) {
+            action.run();
+        }
+        Debug.resetThreadAllocCount();
+        Debug.resetThreadAllocSize();
+        Debug.startAllocCounting();
+        for (int i = 0; i < iterations; i++) {
+            action.run();
+        }
+        Debug.stopAllocCounting();
+        mCount = Debug.getThreadAllocCount();
+        mSize = Debug.getThreadAllocSize();
+        return this;
+    }
+
+    /**
+     * @return The number of objects allocated by the counted runs
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * @return The number of bytes allocated by the counted runs
+     */
+    public int getSize() {
+        return mSize;
+    }
+}
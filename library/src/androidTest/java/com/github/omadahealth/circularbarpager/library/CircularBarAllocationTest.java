@@ -0,0 +1,89 @@
+package com.github.omadahealth.circularbarpager.library;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.test.AndroidTestCase;
+
+/**
+ * Drives the hot paths of {@link CircularBar} through many iterations and fails if their
+ * steady state allocates, on every frame of an animation this would churn the garbage collector.
+ */
+public class CircularBarAllocationTest extends AndroidTestCase {
+
+    private static final int SIZE = 200;
+
+    private static final int ITERATIONS = 500;
+
+    private CircularBar mCircularBar;
+
+    private Canvas mCanvas;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mCircularBar = new CircularBar(getContext());
+        mCircularBar.setStartLineEnabled(true);
+        mCircularBar.layout(0, 0, SIZE, SIZE);
+        mCanvas = new Canvas(Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888));
+    }
+
+    public void testSetProgressDoesNotAllocate() {
+        mCircularBar.setCirclePieceFill(12, 0b101010101010L);
+        assertNoAllocation(new Runnable() {
+            private int mFrame;
+
+            @Override
+            public void run() {
+                mCircularBar.setProgress(mFrame++ % 100);
+            }
+        });
+    }
+
+    public void testCounterClockwiseSetProgressDoesNotAllocate() {
+        mCircularBar.setCirclePieceFill(1, 1L);
+        assertNoAllocation(new Runnable() {
+            private int mFrame;
+
+            @Override
+            public void run() {
+                mCircularBar.setProgress(-(mFrame++ % 100));
+            }
+        });
+    }
+
+    public void testAnimationFrameDoesNotAllocate() {
+        mCircularBar.setCircleFillColor(Color.BLUE);
+        mCircularBar.setCircleFillMode(CircularBar.CircleFillMode.PIE);
+        mCircularBar.setCirclePieceFill(365, 0L);
+        assertNoAllocation(new Runnable() {
+            private int mFrame;
+
+            @Override
+            public void run() {
+                mCircularBar.setProgress(mFrame++ % 100);
+                mCircularBar.onDraw(mCanvas);
+            }
+        });
+    }
+
+    public void testStaticLayerFrameDoesNotAllocate() {
+        mCircularBar.setStaticLayerCacheEnabled(true);
+        mCircularBar.setCircleFillColor(Color.BLUE);
+        mCircularBar.setCirclePieceFill(1, 1L);
+        assertNoAllocation(new Runnable() {
+            private int mFrame;
+
+            @Override
+            public void run() {
+                mCircularBar.setProgress(mFrame++ % 100);
+                mCircularBar.onDraw(mCanvas);
+            }
+        });
+    }
+
+    private void assertNoAllocation(Runnable action) {
+        AllocationCounter counter = new AllocationCounter().run(action, ITERATIONS);
+        assertEquals("Allocated " + counter.getSize() + " bytes", 0, counter.getCount());
+    }
+}
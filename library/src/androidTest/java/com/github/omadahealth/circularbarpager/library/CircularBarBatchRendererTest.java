@@ -0,0 +1,143 @@
+package com.github.omadahealth.circularbarpager.library;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.os.HandlerThread;
+import android.test.AndroidTestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that {@link CircularBarBatchRenderer} delivers every state in order, with the pixels of
+ * {@link CircularBarRenderer}, within its bitmap pool.
+ */
+public class CircularBarBatchRendererTest extends AndroidTestCase {
+
+    private static final int SIZE = 64;
+
+    private static final int STATE_COUNT = 120;
+
+    private static final int POOL_SIZE = 4;
+
+    private HandlerThread mCallbackThread;
+
+    private CircularBarStyle mStyle;
+
+    private CircularBarBatchRenderer mBatchRenderer;
+
+    private List<CircularBarState> mStates;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mCallbackThread = new HandlerThread("callbacks");
+        mCallbackThread.start();
+        mStyle = new CircularBar(getContext()).getBarStyle();
+        mBatchRenderer = new CircularBarBatchRenderer(mStyle, SIZE, SIZE, 3, POOL_SIZE, mCallbackThread.getLooper());
+        mStates = new ArrayList<>();
+        for (int index = 0; index < STATE_COUNT; index++) {
+            mStates.add(new CircularBarState(index % 100, 100).withSegments(new boolean[]{true, index % 2 == 0, true}));
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        mBatchRenderer.shutdown();
+        mCallbackThread.quit();
+        super.tearDown();
+    }
+
+    public void testRendersInOrderWithinThePool() throws InterruptedException {
+        final CountDownLatch complete = new CountDownLatch(1);
+        final List<Integer> indices = new ArrayList<>();
+        final List<Bitmap> bitmaps = new ArrayList<>();
+        final CircularBarRenderer renderer = new CircularBarRenderer(mStyle);
+        final boolean[] matching = {true};
+        mBatchRenderer.render(mStates, new CircularBarBatchRenderer.Callback() {
+            @Override
+            public void onRendered(int index, Bitmap bitmap) {
+                indices.add(index);
+                if (!bitmaps.contains(bitmap)) {
+                    bitmaps.add(bitmap);
+                }
+                matching[0] &= renderer.render(mStates.get(index), SIZE, SIZE).sameAs(bitmap);
+                mBatchRenderer.releaseBitmap(bitmap);
+            }
+
+            @Override
+            public void onComplete() {
+                complete.countDown();
+            }
+        });
+        assertTrue(complete.await(30, TimeUnit.SECONDS));
+        assertEquals(STATE_COUNT, indices.size());
+        for (int index = 0; index < STATE_COUNT; index++) {
+            assertEquals(index, (int) indices.get(index));
+        }
+        assertTrue(matching[0]);
+        assertTrue(bitmaps.size() <= POOL_SIZE);
+    }
+
+    public void testRendersWhileABarDrawsWithTheSameStyle() throws InterruptedException {
+        final CountDownLatch complete = new CountDownLatch(1);
+        final CircularBarRenderer renderer = new CircularBarRenderer(mStyle);
+        final boolean[] matching = {true};
+        CircularBar bar = new CircularBar(getContext());
+        bar.setBarStyle(mStyle);
+        bar.setCirclePieceFill(1, 1L);
+        bar.layout(0, 0, SIZE, SIZE);
+        Canvas canvas = new Canvas(Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888));
+        mBatchRenderer.render(mStates, new CircularBarBatchRenderer.Callback() {
+            @Override
+            public void onRendered(int index, Bitmap bitmap) {
+                matching[0] &= renderer.render(mStates.get(index), SIZE, SIZE).sameAs(bitmap);
+                mBatchRenderer.releaseBitmap(bitmap);
+            }
+
+            @Override
+            public void onComplete() {
+                complete.countDown();
+            }
+        });
+        //The bar draws with the shared paints of the style while the workers render
+        long deadline = System.currentTimeMillis() + 30000;
+        for (int frame = 0; complete.getCount() > 0 && System.currentTimeMillis() < deadline; frame++) {
+            bar.setProgress(frame % 100);
+            bar.onDraw(canvas);
+        }
+        assertTrue(complete.await(30, TimeUnit.SECONDS));
+        assertTrue(matching[0]);
+        assertSame(mStyle.getClockwiseReachedArcPaint(), bar.mReachedArcPaint);
+    }
+
+    public void testCompressesIntoTheOutputs() throws InterruptedException {
+        final CountDownLatch complete = new CountDownLatch(1);
+        final List<Integer> indices = new ArrayList<>();
+        List<ByteArrayOutputStream> outputs = new ArrayList<>();
+        for (int index = 0; index < STATE_COUNT; index++) {
+            outputs.add(new ByteArrayOutputStream());
+        }
+        mBatchRenderer.compress(mStates, outputs, new CircularBarBatchRenderer.Callback() {
+            @Override
+            public void onCompressed(int index) {
+                indices.add(index);
+            }
+
+            @Override
+            public void onComplete() {
+                complete.countDown();
+            }
+        });
+        assertTrue(complete.await(30, TimeUnit.SECONDS));
+        assertEquals(STATE_COUNT, indices.size());
+        byte[] png = outputs.get(STATE_COUNT - 1).toByteArray();
+        Bitmap decoded = BitmapFactory.decodeByteArray(png, 0, png.length);
+        assertEquals(SIZE, decoded.getWidth());
+        assertTrue(new CircularBarRenderer(mStyle).render(mStates.get(STATE_COUNT - 1), SIZE, SIZE).sameAs(decoded));
+    }
+}
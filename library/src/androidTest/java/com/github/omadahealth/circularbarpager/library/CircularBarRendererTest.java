@@ -0,0 +1,72 @@
+package com.github.omadahealth.circularbarpager.library;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.test.AndroidTestCase;
+
+/**
+ * Checks that {@link CircularBarRenderer} draws the same pixels as {@link CircularBar#onDraw(Canvas)},
+ * from any thread.
+ */
+public class CircularBarRendererTest extends AndroidTestCase {
+
+    private static final int SIZE = 200;
+
+    private CircularBar mCircularBar;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mCircularBar = new CircularBar(getContext());
+        mCircularBar.setStartLineEnabled(true);
+        mCircularBar.setCircleFillColor(Color.LTGRAY);
+        mCircularBar.layout(0, 0, SIZE, SIZE);
+    }
+
+    private Bitmap drawBar() {
+        Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        mCircularBar.onDraw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    public void testClockwiseSegmentsMatchOnDraw() {
+        mCircularBar.setCirclePieceFill(new boolean[]{true, false, true, true, false});
+        mCircularBar.setProgress(42);
+        Bitmap rendered = new CircularBarRenderer(mCircularBar.getBarStyle()).render(mCircularBar.getState(), SIZE, SIZE);
+        assertTrue(drawBar().sameAs(rendered));
+    }
+
+    public void testCounterClockwisePieMatchesOnDraw() {
+        mCircularBar.setCircleFillMode(CircularBar.CircleFillMode.PIE);
+        mCircularBar.setCirclePieceFill(1, 1L);
+        mCircularBar.setProgress(-30);
+        Bitmap rendered = new CircularBarRenderer(mCircularBar.getBarStyle()).render(mCircularBar.getState(), SIZE, SIZE);
+        assertTrue(drawBar().sameAs(rendered));
+    }
+
+    public void testRendersOffTheMainThread() throws InterruptedException {
+        mCircularBar.setCirclePieceFill(1, 1L);
+        mCircularBar.setProgress(64);
+        final CircularBarStyle style = mCircularBar.getBarStyle();
+        final CircularBarState state = mCircularBar.getState();
+        final Bitmap[] rendered = new Bitmap[1];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                rendered[0] = new CircularBarRenderer(style).render(state, SIZE, SIZE);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertTrue(drawBar().sameAs(rendered[0]));
+    }
+
+    public void testBitmapsAreReused() {
+        CircularBarRenderer renderer = new CircularBarRenderer(mCircularBar.getBarStyle());
+        Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        renderer.render(new CircularBarState(100, 100), bitmap);
+        renderer.render(new CircularBarState(0, 100), bitmap);
+        assertTrue(renderer.render(new CircularBarState(0, 100), SIZE, SIZE).sameAs(bitmap));
+    }
+}
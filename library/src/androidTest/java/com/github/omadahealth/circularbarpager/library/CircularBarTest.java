@@ -0,0 +1,313 @@
+package com.github.omadahealth.circularbarpager.library;
+
+import android.animation.ValueAnimator;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Shader;
+import android.test.AndroidTestCase;
+import android.view.View;
+
+/**
+ * Checks the geometry, styles, batch edits and draw path of {@link CircularBar}.
+ */
+public class CircularBarTest extends AndroidTestCase {
+
+    private static final int SIZE = 200;
+
+    private static final int ITERATIONS = 200;
+
+    private CircularBar mCircularBar;
+
+    private Canvas mCanvas;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mCircularBar = new CircularBar(getContext());
+        mCircularBar.setClockwiseReachedArcColor(Color.GREEN);
+        mCircularBar.setStartLineEnabled(true);
+        mCircularBar.layout(0, 0, SIZE, SIZE);
+        mCanvas = new Canvas(Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888));
+    }
+
+    public void testArcRectsComputedOnLayout() {
+        assertTrue(mCircularBar.mReachedArcRectF.width() > 0);
+        assertTrue(mCircularBar.mOutlineArcRectF.width() > 0);
+        assertTrue(mCircularBar.mFillCircleRectF.width() > 0);
+    }
+
+    public void testArcRectsUpdatedOnPadding() {
+        float width = mCircularBar.mReachedArcRectF.width();
+        mCircularBar.setPadding(10, 10, 10, 10);
+        assertEquals(width - 20, mCircularBar.mReachedArcRectF.width(), 0.01f);
+    }
+
+    public void testArcRectsUpdatedOnWidth() {
+        float width = mCircularBar.mReachedArcRectF.width();
+        mCircularBar.setClockwiseReachedArcWidth(mCircularBar.getClockwiseReachedArcWidth() + 10);
+        assertEquals(width - 10, mCircularBar.mReachedArcRectF.width(), 0.01f);
+    }
+
+    public void testBarsShareStylePaints() {
+        CircularBar other = new CircularBar(getContext());
+        other.setBarStyle(mCircularBar.getBarStyle());
+        assertSame(mCircularBar.mReachedArcPaint, other.mReachedArcPaint);
+
+        other.setClockwiseReachedArcColor(Color.RED);
+        assertNotSame(mCircularBar.getBarStyle(), other.getBarStyle());
+        assertEquals(Color.GREEN, mCircularBar.mReachedArcPaint.getColor());
+        assertSame(mCircularBar.mOutlineArcPaint, other.mOutlineArcPaint);
+    }
+
+    public void testEditAppliesAllChanges() {
+        float width = mCircularBar.mReachedArcRectF.width();
+        CircularBar.Editor editor = mCircularBar.edit()
+                .setClockwiseReachedArcColor(Color.RED)
+                .setClockwiseReachedArcWidth(mCircularBar.getClockwiseReachedArcWidth() + 10)
+                .setCircleFillMode(CircularBar.CircleFillMode.PIE)
+                .setMax(50)
+                .setSuffix(null)
+                .setCirclePieceFill(4, 0b0101L)
+                .setProgress(25);
+        assertEquals(Color.GREEN, mCircularBar.getClockwiseReachedArcColor());
+
+        editor.apply();
+        assertEquals(Color.RED, mCircularBar.mReachedArcPaint.getColor());
+        assertEquals(width - 10, mCircularBar.mReachedArcRectF.width(), 0.01f);
+        assertEquals(CircularBar.CircleFillMode.PIE, mCircularBar.getCircleFillMode());
+        assertEquals(50, mCircularBar.getMax());
+        assertEquals("", mCircularBar.getSuffix());
+        assertEquals(4, mCircularBar.getCirclePieceCount());
+        assertTrue(mCircularBar.isCirclePieceFilled(2));
+        assertEquals(25f, mCircularBar.getProgress(), 0.01f);
+    }
+
+    public void testEditMatchesTheDirectSetters() {
+        try {
+            mCircularBar.edit().setCirclePieceFill(65, 0L);
+            fail("A mask holds at most 64 segments");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            mCircularBar.edit().setCirclePieceFill(-1, 0L);
+            fail("The number of segments can not be negative");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        mCircularBar.setCircleFillGradient(CircularBarGradient.radial(Color.RED, Color.BLUE));
+        mCircularBar.edit().setCircleFillColor(Color.TRANSPARENT).apply();
+        assertTrue(mCircularBar.mCircleFillEnabled);
+    }
+
+    public void testProgressProperty() {
+        CircularBar.PROGRESS.set(mCircularBar, 30f);
+        assertEquals(30f, mCircularBar.getProgress(), 0.01f);
+        assertEquals(30f, CircularBar.PROGRESS.get(mCircularBar), 0.01f);
+    }
+
+    public void testMetricsCountDrawsAndProgress() {
+        assertNull(mCircularBar.getMetrics());
+        mCircularBar.setMetricsEnabled(true);
+        mCircularBar.setProgress(10);
+        mCircularBar.onDraw(mCanvas);
+        mCircularBar.onDraw(mCanvas);
+
+        CircularBarMetrics metrics = mCircularBar.getMetrics().snapshot();
+        assertEquals(2, metrics.getDrawCount());
+        assertEquals(2, metrics.getDrawTimes().getCount());
+        assertEquals(1, metrics.getSetProgressTimes().getCount());
+        assertTrue(metrics.getInvalidateCount() >= 1);
+    }
+
+    public void testGradientShaderRebuiltOnlyOnResize() {
+        mCircularBar.setReachedArcGradient(CircularBarGradient.sweep(Color.RED, Color.BLUE));
+        Shader shader = mCircularBar.mReachedArcPaint.getShader();
+        assertNotNull(shader);
+
+        mCircularBar.setGradientRotation(45);
+        mCircularBar.setProgress(42);
+        mCircularBar.setReachedArcGradient(CircularBarGradient.sweep(Color.RED, Color.BLUE));
+        assertSame(shader, mCircularBar.mReachedArcPaint.getShader());
+        assertNotSame(mCircularBar.getBarStyle().getClockwiseReachedArcPaint(), mCircularBar.mReachedArcPaint);
+
+        mCircularBar.layout(0, 0, SIZE / 2, SIZE / 2);
+        assertNotSame(shader, mCircularBar.mReachedArcPaint.getShader());
+
+        mCircularBar.setReachedArcGradient(null);
+        assertSame(mCircularBar.getBarStyle().getClockwiseReachedArcPaint(), mCircularBar.mReachedArcPaint);
+    }
+
+    public void testHardwareLayerIsReferenceCounted() {
+        mCircularBar.setLayerType(View.LAYER_TYPE_SOFTWARE, null);
+        HardwareLayerPromoter promoter = mCircularBar.getHardwareLayerPromoter();
+        ValueAnimator fade = ValueAnimator.ofFloat(0, 1);
+        promoter.getAnimatorListener().onAnimationStart(fade);
+        promoter.acquire();
+        assertEquals(View.LAYER_TYPE_HARDWARE, mCircularBar.getLayerType());
+
+        promoter.getAnimatorListener().onAnimationEnd(fade);
+        assertEquals(View.LAYER_TYPE_HARDWARE, mCircularBar.getLayerType());
+        promoter.release();
+        assertEquals(View.LAYER_TYPE_SOFTWARE, mCircularBar.getLayerType());
+
+        promoter.release();
+        assertFalse(promoter.isPromoted());
+        assertEquals(View.LAYER_TYPE_SOFTWARE, mCircularBar.getLayerType());
+    }
+
+    public void testRingsAreLaidOutInside() {
+        CircularBarStyle style = mCircularBar.getBarStyle();
+        mCircularBar.setRingGap(4);
+        mCircularBar.addRing(style);
+        mCircularBar.addRing(style);
+        float width = Math.max(style.getClockwiseReachedArcWidth(), style.getClockwiseOutlineArcWidth());
+
+        mCircularBar.setLabelEnabled(true);
+        mCircularBar.setProgress(42);
+        mCircularBar.onDraw(mCanvas);
+        //The ring of the bar, then two gaps and two rings on each side
+        float innerWidth = mCircularBar.mReachedArcRectF.width() + style.getClockwiseReachedArcWidth() - 2 * (3 * width + 2 * 4);
+        assertTrue(mCircularBar.getLabelWidth() <= innerWidth);
+
+        mCircularBar.setRingProgress(1, 500);
+        assertEquals((float) mCircularBar.getMax(), mCircularBar.getRingProgress(1), 0.01f);
+        mCircularBar.removeRings();
+        assertEquals(0, mCircularBar.getRingCount());
+    }
+
+    public void testDiameterNotChangedByRings() {
+        float diameter = mCircularBar.getDiameter();
+        assertTrue(diameter > 0);
+        mCircularBar.setRingGap(4);
+        mCircularBar.addRing(mCircularBar.getBarStyle());
+        assertEquals(diameter, mCircularBar.getDiameter(), 0.01f);
+    }
+
+    public void testRenderCacheSharedBetweenBars() {
+        CircularBarRenderCache cache = new CircularBarRenderCache(4 * 1024 * 1024);
+        mCircularBar.setRenderCache(cache);
+        mCircularBar.setCirclePieceFill(1, 1L);
+        mCircularBar.setProgress(42);
+        mCircularBar.onDraw(mCanvas);
+        mCircularBar.onDraw(mCanvas);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+
+        CircularBar other = new CircularBar(getContext());
+        other.setBarStyle(mCircularBar.getBarStyle());
+        other.setStartLineEnabled(true);
+        other.layout(0, 0, SIZE, SIZE);
+        other.setRenderCache(cache);
+        other.setCirclePieceFill(1, 1L);
+        other.setProgress(42.01f);
+        other.onDraw(mCanvas);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertTrue(cache.getSize() <= SIZE * SIZE * 4);
+    }
+
+    public void testRenderCacheNotUsedWhileAnimating() {
+        CircularBarRenderCache cache = new CircularBarRenderCache(4 * 1024 * 1024);
+        mCircularBar.setRenderCache(cache);
+        mCircularBar.springProgressTo(80);
+        mCircularBar.onDraw(mCanvas);
+        assertEquals(0, cache.getMissCount());
+        mCircularBar.cancelProgressAnimation();
+    }
+
+    public void testRenderCacheNotFilledByProgressFrames() throws InterruptedException {
+        CircularBarRenderCache cache = new CircularBarRenderCache(4 * 1024 * 1024);
+        mCircularBar.setRenderCache(cache);
+        mCircularBar.setCirclePieceFill(1, 1L);
+        for (int frame = 1; frame <= 100; frame++) {
+            CircularBar.PROGRESS.set(mCircularBar, (float) frame);
+            mCircularBar.onDraw(mCanvas);
+        }
+        //Only the first frame, before the progress is known to be animated
+        assertTrue(cache.getMissCount() <= 1);
+
+        //The cache is used again once the frames stop
+        int lookups = cache.getMissCount() + cache.getHitCount();
+        Thread.sleep(200);
+        mCircularBar.onDraw(mCanvas);
+        assertEquals(lookups + 1, cache.getMissCount() + cache.getHitCount());
+    }
+
+    public void testRenderCacheKeyedByLevelOfDetail() {
+        CircularBarRenderCache cache = new CircularBarRenderCache(4 * 1024 * 1024);
+        mCircularBar.setRenderCache(cache);
+        boolean[] pieces = new boolean[365];
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = i % 2 == 0;
+        }
+        mCircularBar.setCirclePieceFill(pieces);
+        mCircularBar.setProgress(42);
+        mCircularBar.onDraw(mCanvas);
+        assertEquals(1, cache.getMissCount());
+
+        mCircularBar.setLevelOfDetailThreshold(8);
+        mCircularBar.onDraw(mCanvas);
+        assertEquals(2, cache.getMissCount());
+    }
+
+    public void testOnDrawDoesNotAllocate() {
+        mCircularBar.setProgress(42);
+        assertEquals(0, countDrawAllocations());
+    }
+
+    public void testOnDrawSegmentsDoesNotAllocate() {
+        boolean[] pieces = new boolean[12];
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = i % 2 == 0;
+        }
+        mCircularBar.setCirclePieceFill(pieces);
+        mCircularBar.setProgress(42);
+        assertEquals(0, countDrawAllocations());
+    }
+
+    public void testLabelMeasuredOnlyWhenItsLengthChanges() {
+        mCircularBar.setLabelEnabled(true);
+        mCircularBar.setProgress(42);
+        mCircularBar.onDraw(mCanvas);
+        float width = mCircularBar.getLabelWidth();
+        assertTrue(width > 0);
+
+        mCircularBar.setSuffix("%%");
+        mCircularBar.onDraw(mCanvas);
+        assertTrue(mCircularBar.getLabelWidth() > width);
+    }
+
+    public void testLabelFitsInTheCircle() {
+        mCircularBar.setLabelEnabled(true);
+        mCircularBar.setLabelTextSize(SIZE);
+        mCircularBar.setProgress(42);
+        mCircularBar.onDraw(mCanvas);
+        assertTrue(mCircularBar.getLabelWidth() <= mCircularBar.mFillCircleRectF.width());
+    }
+
+    public void testOnDrawLabelDoesNotAllocate() {
+        mCircularBar.setLabelEnabled(true);
+        final int[] frame = new int[1];
+        int count = new AllocationCounter().run(new Runnable() {
+            @Override
+            public void run() {
+                mCircularBar.setProgress(frame[0]++ % 100);
+                mCircularBar.onDraw(mCanvas);
+            }
+        }, ITERATIONS).getCount();
+        assertEquals(0, count);
+    }
+
+    /**
+     * Draws a few warm up frames then counts the allocations of {@link #ITERATIONS} frames
+     */
+    private int countDrawAllocations() {
+        return new AllocationCounter().run(new Runnable() {
+            @Override
+            public void run() {
+                mCircularBar.onDraw(mCanvas);
+            }
+        }, ITERATIONS).getCount();
+    }
+}
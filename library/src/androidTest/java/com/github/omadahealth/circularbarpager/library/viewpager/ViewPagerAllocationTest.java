@@ -0,0 +1,72 @@
+package com.github.omadahealth.circularbarpager.library.viewpager;
+
+import android.test.AndroidTestCase;
+import android.view.View;
+
+import com.github.omadahealth.circularbarpager.library.AllocationCounter;
+
+/**
+ * Drives the hot paths of the view pager, the page transformer on every scroll frame and
+ * the measure of the wrapping pager, and fails if their steady state allocates.
+ */
+public class ViewPagerAllocationTest extends AndroidTestCase {
+
+    private static final int SIZE = 300;
+
+    private static final int ITERATIONS = 500;
+
+    private WrapContentViewPager mViewPager;
+
+    private View mPage;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mViewPager = new WrapContentViewPager(getContext());
+        for (int i = 0; i < 3; i++) {
+            View page = new View(getContext());
+            page.setMinimumHeight(SIZE / (i + 1));
+            mViewPager.addView(page);
+        }
+        mPage = mViewPager.getChildAt(0);
+        mViewPager.measure(View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY));
+        mViewPager.layout(0, 0, SIZE, SIZE);
+        mPage.layout(0, 0, SIZE, SIZE);
+    }
+
+    public void testTransformPageDoesNotAllocate() {
+        final FadeViewPagerTransformer transformer = new FadeViewPagerTransformer();
+        assertNoAllocation(new Runnable() {
+            private int mFrame;
+
+            @Override
+            public void run() {
+                //Sweep every branch, from fully left to fully right
+                transformer.transformPage(mPage, (mFrame++ % 41) / 10f - 2f);
+            }
+        });
+    }
+
+    public void testWrapContentMeasureDoesNotAllocate() {
+        final int widthMeasureSpec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY);
+        final int heightMeasureSpec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.AT_MOST);
+        assertEquals(SIZE, measure(widthMeasureSpec, heightMeasureSpec));
+        assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                mViewPager.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            }
+        });
+    }
+
+    private int measure(int widthMeasureSpec, int heightMeasureSpec) {
+        mViewPager.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        return mViewPager.getMeasuredHeight();
+    }
+
+    private void assertNoAllocation(Runnable action) {
+        AllocationCounter counter = new AllocationCounter().run(action, ITERATIONS);
+        assertEquals("Allocated " + counter.getSize() + " bytes", 0, counter.getCount());
+    }
+}
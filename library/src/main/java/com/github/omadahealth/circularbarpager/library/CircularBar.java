@@ -24,26 +24,37 @@
 package com.github.omadahealth.circularbarpager.library;
 
 
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.RectF;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Parcelable;
+import android.support.v4.view.ViewCompat;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.Property;
 import android.view.View;
-
-import com.daimajia.easing.Glider;
-import com.daimajia.easing.Skill;
+import android.view.animation.AnimationUtils;
+
+import com.github.omadahealth.circularbarpager.library.core.ArcGeometry;
+import com.github.omadahealth.circularbarpager.library.core.ArcRuns;
+import com.github.omadahealth.circularbarpager.library.core.ArcSegments;
+import com.github.omadahealth.circularbarpager.library.core.EasingTable;
+import com.github.omadahealth.circularbarpager.library.core.ProgressFormatter;
+import com.github.omadahealth.circularbarpager.library.core.ProgressTween;
+import com.github.omadahealth.circularbarpager.library.core.SpringIntegrator;
 import android.animation.Animator;
 import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
+import android.animation.ValueAnimator;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import daniel.olivier.stoyan.pager.R;
@@ -52,7 +63,7 @@ import daniel.olivier.stoyan.pager.R;
 /**
  * Created by stoyan and olivier on 12/9/14.
  */
-public class CircularBar extends View implements Animator.AnimatorListener {
+public class CircularBar extends View implements Animator.AnimatorListener, ValueAnimator.AnimatorUpdateListener {
 
     /**
      * TAG for logging
@@ -66,10 +77,32 @@ public class CircularBar extends View implements Animator.AnimatorListener {
 
     /**
      * The default {@link #mMax} of the circular bar, not the angle.
-     * IE. {@link #progress}/{@link #mMax} * 360 = {@link #mProgressSweep}
+     * IE. {@link #progress}/{@link #mMax} * 360 = the reached sweep angle
      */
     public static final int DEFAULT_ARC_MAX = 100;
 
+    /**
+     * The max time in milliseconds between two progress changes for the bar to be considered animated
+     * from the outside, see {@link #drawRenderCache(Canvas)}
+     */
+    private static final long RENDER_CACHE_PROGRESS_INTERVAL = 100;
+
+    /**
+     * The progress of the bar, to animate it without reflection:
+     * {@code ObjectAnimator.ofFloat(bar, CircularBar.PROGRESS, 0, 100)}
+     */
+    public static final Property<CircularBar, Float> PROGRESS = new Property<CircularBar, Float>(Float.class, "progress") {
+        @Override
+        public Float get(CircularBar circularBar) {
+            return circularBar.getProgress();
+        }
+
+        @Override
+        public void set(CircularBar circularBar, Float value) {
+            circularBar.setProgress(value);
+        }
+    };
+
     /**
      * The max progress, default is 100
      */
@@ -81,169 +114,334 @@ public class CircularBar extends View implements Animator.AnimatorListener {
     private float progress = 0;
 
     /**
-     * The clockwise progress area bar color
+     * The colors and widths of the arcs, with their paints. Can be shared with other bars,
+     * see {@link #setBarStyle(CircularBarStyle)}
      */
-    private int mClockwiseArcColor;
+    private CircularBarStyle mBarStyle;
 
     /**
-     * The counter clockwise progress area bar color
+     * The fill mode type for {@link CircularBarStyle#getCircleFillColor()}
      */
-    private int mCounterClockwiseArcColor;
+    protected int mCircleFillMode;
 
     /**
-     * The clockwise bar outline area color.
+     * The Paint of the reached area, the clockwise or counter clockwise paint of {@link #mBarStyle}
      */
-    private int mClockwiseOutlineArcColor;
+    protected Paint mReachedArcPaint;
 
     /**
-     * The counter clockwise bar outline area color.
+     * The Painter of the outline area, the clockwise or counter clockwise paint of {@link #mBarStyle}
      */
-    private int mCounterClockwiseOutlineArcColor;
+    protected Paint mOutlineArcPaint;
 
     /**
-     * The color to fill the circle center
+     * The Painter of the fill circle.
      */
-    private int mCircleFillColor;
+    protected Paint mCircleFillPaint;
 
     /**
-     * The fill mode type for {@link #mCircleFillColor}
+     * The reached bar area rect.
      */
-    protected int mCircleFillMode;
+    protected RectF mReachedArcRectF = new RectF(0, 0, 0, 0);
 
     /**
-     * The clockwise width of the reached area
+     * The outline bar area
      */
-    private float mClockwiseReachedArcWidth;
+    protected RectF mOutlineArcRectF = new RectF(0, 0, 0, 0);
 
     /**
-     * The counter clockwise width of the reached area
+     * The fill circle area
      */
-    private float mCounterClockwiseReachedArcWidth;
+    protected RectF mFillCircleRectF = new RectF(0, 0, 0, 0);
 
     /**
-     * The clockwise width of the outline area
+     * The diameter of the circle that will be drawn. Computed in {@link #calculateDrawRectF()}
      */
-    private float mClockwiseOutlineArcWidth;
+    private float mDiameter;
 
     /**
-     * The counter clockwise width of the outline area
+     * The coordinates computed by {@link ArcGeometry#getArcRect(int, int, int, int, int, int, float, float[])}
      */
-    private float mCounterClockwiseOutlineArcWidth;
+    private final float[] mArcRect = new float[4];
 
     /**
-     * The Paint of the reached area.
+     * Determine if need to draw the start line
      */
-    protected Paint mReachedArcPaint;
+    private boolean mStartLineEnabled;
 
     /**
-     * The Paint of the clockwise reached area.
+     * Determine if need to draw outline area
      */
-    private Paint mClockwiseReachedArcPaint;
+    protected boolean mDrawOutlineArc = true;
 
     /**
-     * The Paint of the counter clockwise reached area.
+     * We should always draw reached area
      */
-    private Paint mCounterClockwiseReachedArcPaint;
+    protected boolean mDrawReachedArc = true;
 
     /**
-     * The Painter of the outline area.
+     * Indicates if we need to fill the circle
      */
-    protected Paint mOutlineArcPaint;
+    protected boolean mCircleFillEnabled = false;
+
 
     /**
-     * The Painter of the clockwise outline area.
+     * The equal parts the circle arc is divided into, with their filled state and the
+     * progress angles of the {@link #mOutlineArcRectF} and {@link #mReachedArcRectF}.
+     * Nothing is drawn until it has at least one segment.
      */
-    private Paint mClockwiseOutlineArcPaint;
+    protected final ArcSegments mArcSegments = new ArcSegments();
 
     /**
-     * The Painter of the counter clockwise outline area.
+     * The reached arcs of {@link #mArcSegments} merged into runs, also used for the {@link CircleFillMode#PIE} fill
      */
-    private Paint mCounterClockwiseOutlineArcPaint;
+    protected final ArcRuns mReachedArcRuns = new ArcRuns();
 
     /**
-     * The Painter of the fill circle.
+     * The outline arcs of {@link #mArcSegments} merged into runs
      */
-    protected Paint mCircleFillPaint;
+    protected final ArcRuns mOutlineArcRuns = new ArcRuns();
 
     /**
-     * The reached bar area rect.
+     * True if {@link #mReachedArcRuns} and {@link #mOutlineArcRuns} must be computed again before drawing
      */
-    protected RectF mReachedArcRectF = new RectF(0, 0, 0, 0);
+    private boolean mArcRunsDirty = true;
 
     /**
-     * The outline bar area
+     * The min length in pixels of the reached arc of a segment, below it consecutive segments are drawn
+     * grouped. 0 to always draw each segment.
      */
-    protected RectF mOutlineArcRectF = new RectF(0, 0, 0, 0);
+    private float mLevelOfDetailThreshold = 0;
 
     /**
-     * The fill circle area
+     * Indicates if the static parts of the bar (the {@link CircleFillMode#DEFAULT} fill and the outline ring)
+     * are rasterized once into {@link #mStaticLayerBitmap} instead of being drawn on every frame
      */
-    protected RectF mFillCircleRectF = new RectF(0, 0, 0, 0);
+    private boolean mStaticLayerCacheEnabled = false;
 
     /**
-     * The diameter of the circle that will be drawn. Computed in {@link #getArcRect(float)}
+     * The cached static layer, see {@link #mStaticLayerCacheEnabled}
      */
-    private float mDiameter;
+    private Bitmap mStaticLayerBitmap;
 
     /**
-     * Determine if need to draw the start line
+     * The canvas drawing into {@link #mStaticLayerBitmap}
      */
-    private boolean mStartLineEnabled;
+    private Canvas mStaticLayerCanvas;
 
     /**
-     * Determine if need to draw outline area
+     * The outline paint {@link #mStaticLayerBitmap} was drawn with
      */
-    protected boolean mDrawOutlineArc = true;
+    private Paint mStaticLayerOutlinePaint;
 
     /**
-     * We should always draw reached area
+     * True if {@link #mStaticLayerBitmap} must be drawn again
      */
-    protected boolean mDrawReachedArc = true;
+    boolean mStaticLayerDirty = true;
 
     /**
-     * Indicates if we need to fill the circle
+     * The suffix of the number.
      */
-    protected boolean mCircleFillEnabled = false;
+    private String mSuffix = "%";
 
+    /**
+     * The prefix.
+     */
+    private String mPrefix = "";
 
     /**
-     * How many equal parts the circle arc should be divided into
+     * The concentric rings drawn inside the ring of the bar, from the outermost, see {@link #addRing(CircularBarStyle)}
      */
+    private final List<Ring> mRings = new ArrayList<>();
 
-    protected List<Boolean> mCirclePieceFillList;
+    /**
+     * The space between two rings in pixels
+     */
+    private float mRingGap;
 
     /**
-     * The progress angles of the {@link #mOutlineArcRectF} and
-     * {@link #mReachedArcRectF}
+     * The circle inside the innermost ring, the label fits in it
      */
-    protected ProgressSweep mProgressSweep;
+    private final RectF mInnerRingRectF = new RectF();
 
     /**
-     * The list progress angles of the {@link #mOutlineArcRectF} and
-     * {@link #mReachedArcRectF}
+     * True while a ring animates on the {@link CircularBarClock}
      */
-    protected List<ProgressSweep> mProgressSweepList;
+    private boolean mRingAnimationRunning;
 
     /**
-     * The suffix of the number.
+     * The shared cache of rendered bars, null if not set
      */
-    private String mSuffix = "%";
+    private CircularBarRenderCache mRenderCache;
 
     /**
-     * The prefix.
+     * The bitmap of {@link #mRenderCache} last drawn
      */
-    private String mPrefix = "";
+    private Bitmap mRenderCacheBitmap;
+
+    /**
+     * True if {@link #mRenderCacheBitmap} must be obtained again from {@link #mRenderCache}
+     */
+    private boolean mRenderCacheDirty = true;
+
+    /**
+     * The time of the last progress change while {@link #mRenderCache} is set, and the time since the one before,
+     * in the {@link AnimationUtils#currentAnimationTimeMillis()} time base
+     */
+    private long mRenderCacheProgressTime = Long.MIN_VALUE;
+    private long mRenderCacheProgressInterval = Long.MAX_VALUE;
+
+    /**
+     * Holds the hardware layer of the bar during alpha and transform animations, created when first used
+     */
+    private HardwareLayerPromoter mHardwareLayerPromoter;
+
+    /**
+     * The gradients replacing the colors of the reached arc, outline arc and fill, null when not set
+     */
+    private GradientShaderCache mReachedArcGradient;
+    private GradientShaderCache mOutlineArcGradient;
+    private GradientShaderCache mCircleFillGradient;
+
+    /**
+     * The rotation of the gradients in degrees
+     */
+    private float mGradientRotation;
+
+    /**
+     * Indicates if {@link #mPrefix}, the progress and {@link #mSuffix} are drawn in the center
+     */
+    private boolean mLabelEnabled;
+
+    /**
+     * The paint of the label, created when the label is enabled
+     */
+    private Paint mLabelPaint;
+
+    /**
+     * The text size of the label, before it is shrunk to fit in the circle
+     */
+    private float mLabelTextSize;
+
+    /**
+     * The color of the label
+     */
+    private int mLabelColor;
+
+    /**
+     * The characters of the label: the prefix, the value then the suffix
+     */
+    private char[] mLabelChars = new char[0];
+
+    /**
+     * The number of characters of {@link #mLabelChars} in use
+     */
+    private int mLabelLength;
+
+    /**
+     * Writes the progress of the label, see {@link #setLabelFormatter(ProgressFormatter)}
+     */
+    private ProgressFormatter mLabelFormatter = new ProgressFormatter();
+
+    /**
+     * The value written in {@link #mLabelChars}, in units of the last decimal, and its number of characters
+     */
+    private long mLabelValue;
+    private int mLabelValueLength = -1;
+
+    /**
+     * The measured width of the label, for its value length
+     */
+    private float mLabelWidth;
+
+    /**
+     * The offset from the center of the circle to the baseline of the label
+     */
+    private float mLabelBaselineOffset;
+
+    /**
+     * True if the label must be laid out and measured again, after its affixes, text size or
+     * the size of the circle changed
+     */
+    private boolean mLabelDirty = true;
 
     /**
      * A list of listeners we call on animations
      */
     private List<Animator.AnimatorListener> mListeners;
 
+    /**
+     * The animator of the progress, created on the first animation and reused by the next ones.
+     * It is only listened to by this bar, which forwards the events to {@link #mListeners}
+     */
+    private ValueAnimator mProgressAnimator;
+
+    /**
+     * The progress of {@link #mProgressAnimator} for each fraction of it
+     */
+    private final ProgressTween mProgressTween = new ProgressTween();
+
+    /**
+     * The easing of the next progress animations
+     */
+    private EasingTable mProgressEasing = EasingTable.QUAD_IN_OUT;
+
+    /**
+     * True while {@link #mProgressAnimator} is cancelled to be started again from where it is
+     */
+    private boolean mRetargeting;
+
+    /**
+     * The spring the progress follows in {@link #springProgressTo(float)}
+     */
+    private final SpringIntegrator mSpring = new SpringIntegrator();
+
+    /**
+     * True while {@link #mSpring} is moving and frames are scheduled
+     */
+    private boolean mSpringRunning;
+
+    /**
+     * The animation time of the last frame of {@link #mSpring}
+     */
+    private long mSpringFrameTime;
+
+    /**
+     * The render metrics, null unless enabled with {@link #setMetricsEnabled(boolean)}
+     */
+    private CircularBarMetrics mMetrics;
+
+    /**
+     * True to animate with the {@link CircularBarClock} shared by every bar instead of
+     * {@link #mProgressAnimator} and frames posted by this bar
+     */
+    private boolean mSharedClockEnabled;
+
+    /**
+     * True while {@link #mProgressTween} is animated by the {@link CircularBarClock}
+     */
+    private boolean mClockTweenRunning;
+
+    /**
+     * The start time and the duration of the animation run by the {@link CircularBarClock}
+     */
+    private long mClockTweenStartTime;
+    private long mClockTweenDuration;
+
+    /**
+     * Moves {@link #mSpring} on each frame until it comes to rest
+     */
+    private final Runnable mSpringFrame = new Runnable() {
+        @Override
+        public void run() {
+            onSpringFrame();
+        }
+    };
+
     /**
      * The different types of fill color.
      * Default is like a background from 0-360 degrees,
-     * Pie is from 0 to the {@link com.github.omadahealth.circularbarpager.library.CircularBar.ProgressSweep}
-     * of the {@link #mReachedArcPaint}
+     * Pie is from 0 to the reached sweep angle of the {@link #mReachedArcPaint}
      */
     public enum CircleFillMode {
         DEFAULT(0),
@@ -271,6 +469,30 @@ public class CircularBar extends View implements Animator.AnimatorListener {
 
     }
 
+    /**
+     * A ring drawn inside the ring of the bar, see {@link #addRing(CircularBarStyle)}
+     */
+    private static final class Ring {
+
+        private CircularBarStyle mStyle;
+        private float mProgress;
+        private final RectF mReachedArcRectF = new RectF();
+        private final RectF mOutlineArcRectF = new RectF();
+
+        /**
+         * The animation of the progress on the {@link CircularBarClock}
+         */
+        private boolean mTweenRunning;
+        private float mTweenStart;
+        private float mTweenEnd;
+        private long mTweenStartTime;
+        private int mTweenDuration;
+
+        Ring(CircularBarStyle style) {
+            mStyle = style;
+        }
+    }
+
     /**
      * The defaults for width and color of the reached and outline arcs
      */
@@ -281,6 +503,7 @@ public class CircularBar extends View implements Animator.AnimatorListener {
     private final int default_counter_clockwise_outline_color = Color.parseColor("#ffffff");
     private final int default_circle_fill_color = Color.parseColor("#00000000");//fully transparent
     private final int default_circle_fill_mode = CircleFillMode.DEFAULT.getValue();//fully transparent
+    private final int default_label_color = Color.parseColor("#de000000");
     private final float default_reached_arc_width;
     private final float default_outline_arc_width;
     /**
@@ -304,6 +527,7 @@ public class CircularBar extends View implements Animator.AnimatorListener {
     private static final String INSTANCE_PROGRESS = "progress";
     private static final String INSTANCE_SUFFIX = "suffix";
     private static final String INSTANCE_PREFIX = "prefix";
+    private static final String INSTANCE_LABEL_ENABLED = "label_enabled";
 
     public CircularBar(Context context) {
         this(context, null);
@@ -321,140 +545,446 @@ public class CircularBar extends View implements Animator.AnimatorListener {
 
         default_reached_arc_width = dp2px(5f);
         default_outline_arc_width = dp2px(1.0f);
+        mLabelTextSize = sp2px(24);
+        mLabelColor = default_label_color;
+        mRingGap = dp2px(2f);
 
         mListeners = new ArrayList<>();
+        mBarStyle = new CircularBarStyle(default_clockwise_reached_color, default_clockwise_outline_color,
+                default_counter_clockwise_reached_color, default_counter_clockwise_outline_color,
+                default_circle_fill_color,
+                default_reached_arc_width, default_outline_arc_width,
+                default_reached_arc_width, default_outline_arc_width);
+        initializePainters();
         loadStyledAttributes(attrs, defStyleAttr);
     }
 
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        long start = mMetrics != null ? System.nanoTime() : 0;
         setMeasuredDimension(measure(widthMeasureSpec, true), measure(heightMeasureSpec, false));
+        if (mMetrics != null) {
+            mMetrics.onMeasure(System.nanoTime() - start);
+        }
     }
 
     @Override
-    protected void onDraw(Canvas canvas) {
+    public void invalidate() {
+        if (mMetrics != null) {
+            mMetrics.onInvalidate();
+        }
+        super.invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
         calculateDrawRectF();
+    }
+
+    /**
+     * Recomputes the cached rects. Can be called by the super constructor (background padding)
+     * before our fields are initialized, hence the null check.
+     */
+    @Override
+    public void setPadding(int left, int top, int right, int bottom) {
+        super.setPadding(left, top, right, bottom);
+        if (mFillCircleRectF != null) {
+            calculateDrawRectF();
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    @Override
+    public void setPaddingRelative(int start, int top, int end, int bottom) {
+        super.setPaddingRelative(start, top, end, bottom);
+        if (mFillCircleRectF != null) {
+            calculateDrawRectF();
+        }
+    }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        //Release the cached layer, it is rebuilt on the next draw if needed
+        mStaticLayerBitmap = null;
+        mStaticLayerCanvas = null;
+        invalidateStaticLayer();
+        //No more frames are drawn, settle the animations right away
+        if (mSpringRunning) {
+            stopSpring();
+            setProgress(mSpring.getTarget());
+        }
+        if (mClockTweenRunning) {
+            stopClockTween();
+            setProgress(mProgressTween.getEnd());
+        }
+        if (mRingAnimationRunning) {
+            stopRingAnimations(true);
+        }
+        //The animations holding the layer may never end
+        if (mHardwareLayerPromoter != null) {
+            mHardwareLayerPromoter.releaseAll();
+        }
+    }
+
+    /**
+     * Draws the arcs using the {@link android.graphics.RectF} cached by {@link #calculateDrawRectF()}.
+     * Nothing is allocated here, as this is called on every frame of {@link #animateProgress(int, int, int)}
+     */
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mMetrics == null) {
+            drawBar(canvas);
+            return;
+        }
+        long start = System.nanoTime();
+        drawBar(canvas);
+        mMetrics.onDraw(System.nanoTime() - start);
+    }
+
+    /**
+     * Draws the fill, the arcs and the start line, see {@link #onDraw(Canvas)}
+     */
+    private void drawBar(Canvas canvas) {
+        if (drawRenderCache(canvas)) {
+            drawLabel(canvas);
+            return;
+        }
         //Draw the fill first so that it does not overlap the arcs
-        if (mCirclePieceFillList != null && mProgressSweepList != null) {
+        if (mArcSegments.getCount() > 0) {
+            if (mArcRunsDirty) {
+                calculateArcRuns();
+            }
+            boolean staticLayerDrawn = mStaticLayerCacheEnabled && drawStaticLayer(canvas);
             if (mCircleFillEnabled) {
                 switch (CircleFillMode.getMode(mCircleFillMode)) {
                     case PIE:
                         //Fill the circle to the point of the reached sweep
-                        for (int index = 0; index < mCirclePieceFillList.size(); index++) {
-                            ProgressSweep progressSweep = mProgressSweepList.get(index);
-                            canvas.drawArc(mFillCircleRectF, progressSweep.reachedStart, progressSweep.reachedSweep, true, mCircleFillPaint);
+                        for (int index = 0; index < mReachedArcRuns.size(); index++) {
+                            canvas.drawArc(mFillCircleRectF, mReachedArcRuns.getStart(index), mReachedArcRuns.getSweep(index), true, mCircleFillPaint);
                         }
                         break;
                     case DEFAULT:
                     default:
                         //Fill the circle as a background
-                        canvas.drawArc(mOutlineArcRectF, ProgressSweep.START_12, 360f, true, mCircleFillPaint);
+                        if (!staticLayerDrawn) {
+                            canvas.drawArc(mOutlineArcRectF, ArcSegments.START_12, 360f, true, mCircleFillPaint);
+                        }
                         break;
                 }
             }
 
             //Draw the outline arc
-            if (mDrawOutlineArc) {
+            if (mDrawOutlineArc && !staticLayerDrawn) {
                 //Draw the outline bar
-                for (int index = 0; index < mCirclePieceFillList.size(); index++) {
-                    ProgressSweep progressSweep = mProgressSweepList.get(index);
-                    canvas.drawArc(mOutlineArcRectF, progressSweep.outlineStart, progressSweep.outlineSweep, false, mOutlineArcPaint);
+                for (int index = 0; index < mOutlineArcRuns.size(); index++) {
+                    canvas.drawArc(mOutlineArcRectF, mOutlineArcRuns.getStart(index), mOutlineArcRuns.getSweep(index), false, mOutlineArcPaint);
                 }
-
             }
 
             //Draw the reached arc last so its always on top
             if (mDrawReachedArc) {
                 //Draw the bar
-                for (int index = 0; index < mCirclePieceFillList.size(); index++) {
-                    ProgressSweep progressSweep = mProgressSweepList.get(index);
-                    canvas.drawArc(mReachedArcRectF, progressSweep.reachedStart, progressSweep.reachedSweep, false, mReachedArcPaint);
+                for (int index = 0; index < mReachedArcRuns.size(); index++) {
+                    canvas.drawArc(mReachedArcRectF, mReachedArcRuns.getStart(index), mReachedArcRuns.getSweep(index), false, mReachedArcPaint);
                 }
             }
         }
+        for (int index = 0; index < mRings.size(); index++) {
+            drawRing(canvas, mRings.get(index));
+        }
         if (mStartLineEnabled) {
             //Draw the bar start line
-            canvas.drawLine(mReachedArcRectF.centerX(), mReachedArcRectF.top - mClockwiseReachedArcWidth / 2, mReachedArcRectF.centerX() + 1, mReachedArcRectF.top + mClockwiseReachedArcWidth * 1.5f, mOutlineArcPaint);
+            float reachedArcWidth = mBarStyle.getClockwiseReachedArcWidth();
+            canvas.drawLine(mReachedArcRectF.centerX(), mReachedArcRectF.top - reachedArcWidth / 2, mReachedArcRectF.centerX() + 1, mReachedArcRectF.top + reachedArcWidth * 1.5f, mOutlineArcPaint);
         }
+        drawLabel(canvas);
     }
 
-    @Override
-    protected Parcelable onSaveInstanceState() {
-        final Bundle bundle = new Bundle();
-        bundle.putParcelable(INSTANCE_STATE, super.onSaveInstanceState());
-        bundle.putBoolean(INSTANCE_START_LINE_ENABLED, isStartLineEnabled());
-        bundle.putFloat(INSTANCE_CLOCKWISE_REACHED_BAR_HEIGHT, getClockwiseReachedArcWidth());
-        bundle.putFloat(INSTANCE_CLOCKWISE_OUTLINE_BAR_HEIGHT, getClockwiseOutlineArcWidth());
-        bundle.putInt(INSTANCE_CLOCKWISE_REACHED_BAR_COLOR, getClockwiseReachedArcColor());
-        bundle.putInt(INSTANCE_CLOCKWISE_OUTLINE_BAR_COLOR, getClockwiseOutlineArcColor());
-        bundle.putFloat(INSTANCE_COUNTER_CLOCKWISE_REACHED_BAR_HEIGHT, getCounterClockwiseReachedArcWidth());
-        bundle.putFloat(INSTANCE_COUNTER_CLOCKWISE_OUTLINE_BAR_HEIGHT, getCounterClockwiseOutlineArcWidth());
-        bundle.putInt(INSTANCE_COUNTER_CLOCKWISE_REACHED_BAR_COLOR, getCounterClockwiseReachedArcColor());
-        bundle.putInt(INSTANCE_COUNTER_CLOCKWISE_OUTLINE_BAR_COLOR, getCounterClockwiseOutlineArcColor());
-        bundle.putBoolean(INSTANCE_CIRCLE_FILL_ENABLED, isCircleFillEnabled());
-        bundle.putInt(INSTANCE_CIRCLE_FILL_COLOR, getCircleFillColor());
-        bundle.putInt(INSTANCE_MAX, getMax());
-        bundle.putFloat(INSTANCE_PROGRESS, getProgress());
-        bundle.putString(INSTANCE_SUFFIX, getSuffix());
-        bundle.putString(INSTANCE_PREFIX, getPrefix());
-        return bundle;
+    /**
+     * Draws the outline then the reached arc of a ring, as a single segment
+     */
+    private void drawRing(Canvas canvas, Ring ring) {
+        float sweep = Math.min(Math.abs(ring.mProgress) / mMax, 1f) * 360f;
+        CircularBarStyle style = ring.mStyle;
+        if (ring.mProgress >= 0) {
+            if (sweep < 360f) {
+                canvas.drawArc(ring.mOutlineArcRectF, (ArcSegments.START_12 + sweep) % 360f, 360f - sweep, false, style.getClockwiseOutlineArcPaint());
+            }
+            if (sweep > 0) {
+                canvas.drawArc(ring.mReachedArcRectF, ArcSegments.START_12, sweep, false, style.getClockwiseReachedArcPaint());
+            }
+        } else {
+            if (sweep < 360f) {
+                canvas.drawArc(ring.mOutlineArcRectF, ArcSegments.START_12, 360f - sweep, false, style.getCounterClockwiseOutlineArcPaint());
+            }
+            canvas.drawArc(ring.mReachedArcRectF, ArcSegments.START_12 - sweep, sweep, false, style.getCounterClockwiseReachedArcPaint());
+        }
     }
 
-    @Override
-    protected void onRestoreInstanceState(Parcelable state) {
-        if (state instanceof Bundle) {
-            final Bundle bundle = (Bundle) state;
-            mStartLineEnabled = bundle.getBoolean(INSTANCE_START_LINE_ENABLED);
-            mClockwiseReachedArcWidth = bundle.getFloat(INSTANCE_CLOCKWISE_REACHED_BAR_HEIGHT);
-            mClockwiseOutlineArcWidth = bundle.getFloat(INSTANCE_CLOCKWISE_OUTLINE_BAR_HEIGHT);
-            mClockwiseArcColor = bundle.getInt(INSTANCE_CLOCKWISE_REACHED_BAR_COLOR);
-            mClockwiseOutlineArcColor = bundle.getInt(INSTANCE_CLOCKWISE_OUTLINE_BAR_COLOR);
-            mCounterClockwiseReachedArcWidth = bundle.getFloat(INSTANCE_COUNTER_CLOCKWISE_REACHED_BAR_HEIGHT);
-            mCounterClockwiseOutlineArcWidth = bundle.getFloat(INSTANCE_COUNTER_CLOCKWISE_OUTLINE_BAR_HEIGHT);
-            mCounterClockwiseArcColor = bundle.getInt(INSTANCE_COUNTER_CLOCKWISE_REACHED_BAR_COLOR);
-            mCounterClockwiseOutlineArcColor = bundle.getInt(INSTANCE_COUNTER_CLOCKWISE_OUTLINE_BAR_COLOR);
-            mCircleFillEnabled = bundle.getBoolean(INSTANCE_CIRCLE_FILL_ENABLED);
-            mCircleFillColor = bundle.getInt(INSTANCE_CIRCLE_FILL_COLOR);
-            mCircleFillMode = bundle.getInt(INSTANCE_CIRCLE_FILL_MODE);
-            initializePainters();
-            setMax(bundle.getInt(INSTANCE_MAX));
-            setProgress(bundle.getFloat(INSTANCE_PROGRESS));
-            setPrefix(bundle.getString(INSTANCE_PREFIX));
-            setSuffix(bundle.getString(INSTANCE_SUFFIX));
-            super.onRestoreInstanceState(bundle.getParcelable(INSTANCE_STATE));
-            return;
+    /**
+     * Draws the label on top of the bar, if enabled
+     */
+    private void drawLabel(Canvas canvas) {
+        if (mLabelEnabled) {
+            updateLabel();
+            canvas.drawText(mLabelChars, 0, mLabelLength, mReachedArcRectF.centerX(),
+                    mReachedArcRectF.centerY() + mLabelBaselineOffset, mLabelPaint);
         }
-        super.onRestoreInstanceState(state);
     }
 
     /**
-     * Loads the styles and attributes defined in the xml tag of this class
+     * Draws the bar from the {@link #mRenderCache} if it is set and the bar can be rendered without the view:
+     * not animating, without rings or gradients and with both arcs drawn. A progress set on consecutive frames,
+     * as by an animator of {@link #PROGRESS}, is drawn directly so that the frames do not fill the cache.
      *
-     * @param attrs        The attributes to read from
-     * @param defStyleAttr The styles to read from
-     */
-    public void loadStyledAttributes(AttributeSet attrs, int defStyleAttr) {
-        if (attrs != null) {
-            final TypedArray attributes = mContext.getTheme().obtainStyledAttributes(attrs, R.styleable.CircularViewPager,
-                    defStyleAttr, 0);
+     * @param canvas The canvas of {@link #onDraw(Canvas)}
+     * @return True if the bar was drawn
+     */
+    private boolean drawRenderCache(Canvas canvas) {
+        if (mRenderCache == null || isProgressAnimationRunning() || !mRings.isEmpty() || !mDrawOutlineArc || !mDrawReachedArc
+                || mReachedArcGradient != null || mOutlineArcGradient != null || mCircleFillGradient != null
+                || isProgressSetOnEachFrame()) {
+            return false;
+        }
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+        if (mRenderCacheDirty || mRenderCacheBitmap == null) {
+            mRenderCacheBitmap = mRenderCache.obtain(mBarStyle, getState(), width, height,
+                    getPaddingLeft(), getPaddingTop(), getPaddingRight(), getPaddingBottom(), mLevelOfDetailThreshold);
+            mRenderCacheDirty = false;
+        }
+        canvas.drawBitmap(mRenderCacheBitmap, 0, 0, null);
+        return true;
+    }
 
-            mStartLineEnabled = attributes.getBoolean(R.styleable.CircularViewPager_progress_start_line_enabled, true);
+    /**
+     * Indicates if the progress is being set frame after frame from the outside, as by an animator of {@link #PROGRESS}:
+     * the last two changes were close, and the last one is recent. The bar is back to the cache once the changes stop.
+     *
+     * @return True if the last two progress changes, and the last change and now, are less than
+     * {@link #RENDER_CACHE_PROGRESS_INTERVAL} apart
+     */
+    private boolean isProgressSetOnEachFrame() {
+        return mRenderCacheProgressInterval < RENDER_CACHE_PROGRESS_INTERVAL
+                && AnimationUtils.currentAnimationTimeMillis() - mRenderCacheProgressTime < RENDER_CACHE_PROGRESS_INTERVAL;
+    }
+
+    /**
+     * Marks {@link #mRenderCacheBitmap} to be obtained again on the next draw
+     */
+    private void invalidateRenderCache() {
+        mRenderCacheDirty = true;
+    }
+
+    /**
+     * Writes the rounded progress into {@link #mLabelChars}. The label is only laid out again and
+     * measured when the number of characters of the value changes, or after {@link #invalidateLabel()}.
+     * Nothing is allocated unless the label grows.
+     */
+    private void updateLabel() {
+        long value = mLabelFormatter.round(progress);
+        int valueLength = mLabelFormatter.getLength(value);
+        if (!mLabelDirty && valueLength == mLabelValueLength) {
+            if (value != mLabelValue) {
+                mLabelFormatter.write(value, mLabelChars, mPrefix.length());
+                mLabelValue = value;
+            }
+            return;
+        }
+        int prefixLength = mPrefix.length();
+        int suffixLength = mSuffix.length();
+        mLabelLength = prefixLength + valueLength + suffixLength;
+        if (mLabelChars.length < mLabelLength) {
+            mLabelChars = new char[mLabelLength];
+        }
+        mPrefix.getChars(0, prefixLength, mLabelChars, 0);
+        mLabelFormatter.write(value, mLabelChars, prefixLength);
+        mSuffix.getChars(0, suffixLength, mLabelChars, prefixLength + valueLength);
+        mLabelValue = value;
+        mLabelValueLength = valueLength;
+        mLabelDirty = false;
+        measureLabel();
+    }
+
+    /**
+     * Measures the label, shrinking its text size so that it fits in the fill circle,
+     * and centers it vertically
+     */
+    private void measureLabel() {
+        mLabelPaint.setTextSize(mLabelTextSize);
+        mLabelWidth = mLabelPaint.measureText(mLabelChars, 0, mLabelLength);
+        float maxWidth = mInnerRingRectF.width() * 0.8f;
+        if (mLabelWidth > maxWidth && maxWidth > 0) {
+            mLabelPaint.setTextSize(mLabelTextSize * maxWidth / mLabelWidth);
+            mLabelWidth = mLabelPaint.measureText(mLabelChars, 0, mLabelLength);
+        }
+        mLabelBaselineOffset = -(mLabelPaint.ascent() + mLabelPaint.descent()) / 2;
+    }
+
+    /**
+     * Lays out and measures the label again on the next draw
+     */
+    private void invalidateLabel() {
+        mLabelDirty = true;
+    }
+
+    /**
+     * Merges the arcs of {@link #mArcSegments} into {@link #mReachedArcRuns} and {@link #mOutlineArcRuns},
+     * so that contiguous segments with the same state are drawn with a single arc
+     */
+    protected void calculateArcRuns() {
+        mArcSegments.buildRuns(mReachedArcRuns, mOutlineArcRuns);
+        mArcRunsDirty = false;
+    }
+
+    /**
+     * Groups the segments into buckets if their arcs are shorter than {@link #mLevelOfDetailThreshold},
+     * so that the number of arcs drawn is bounded by the size of the circle instead of the number of segments
+     */
+    private void updateLevelOfDetail() {
+        int maxArcs = 0;
+        if (mLevelOfDetailThreshold > 0) {
+            float circumference = (float) Math.PI * mReachedArcRectF.width();
+            maxArcs = Math.max(1, (int) (circumference / mLevelOfDetailThreshold));
+        }
+        mArcSegments.setMaxArcs(maxArcs);
+        mArcRunsDirty = true;
+    }
+
+    /**
+     * Blits the {@link #mStaticLayerBitmap} holding the {@link CircleFillMode#DEFAULT} fill and the complete
+     * outline ring, rasterizing it first if it has been invalidated.
+     *
+     * @param canvas The canvas of {@link #onDraw(Canvas)}
+     * @return True if the layer was drawn, false if the view has no size yet
+     */
+    private boolean drawStaticLayer(Canvas canvas) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+        if (mStaticLayerBitmap == null || mStaticLayerBitmap.getWidth() != width || mStaticLayerBitmap.getHeight() != height) {
+            mStaticLayerBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mStaticLayerCanvas = new Canvas(mStaticLayerBitmap);
+            mStaticLayerDirty = true;
+        }
+        //The outline paint switches with the direction of the progress
+        if (mStaticLayerDirty || mStaticLayerOutlinePaint != mOutlineArcPaint) {
+            mStaticLayerBitmap.eraseColor(Color.TRANSPARENT);
+            if (mCircleFillEnabled && CircleFillMode.getMode(mCircleFillMode) == CircleFillMode.DEFAULT) {
+                mStaticLayerCanvas.drawArc(mOutlineArcRectF, ArcSegments.START_12, 360f, true, mCircleFillPaint);
+            }
+            if (mDrawOutlineArc) {
+                mStaticLayerCanvas.drawArc(mOutlineArcRectF, ArcSegments.START_12, 360f, false, mOutlineArcPaint);
+            }
+            mStaticLayerOutlinePaint = mOutlineArcPaint;
+            mStaticLayerDirty = false;
+        }
+        canvas.drawBitmap(mStaticLayerBitmap, 0, 0, null);
+        return true;
+    }
+
+    /**
+     * Marks the {@link #mStaticLayerBitmap} as dirty, it will be rasterized again on the next draw
+     */
+    protected void invalidateStaticLayer() {
+        mStaticLayerDirty = true;
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        final Bundle bundle = new Bundle();
+        bundle.putParcelable(INSTANCE_STATE, super.onSaveInstanceState());
+        bundle.putBoolean(INSTANCE_START_LINE_ENABLED, isStartLineEnabled());
+        bundle.putFloat(INSTANCE_CLOCKWISE_REACHED_BAR_HEIGHT, getClockwiseReachedArcWidth());
+        bundle.putFloat(INSTANCE_CLOCKWISE_OUTLINE_BAR_HEIGHT, getClockwiseOutlineArcWidth());
+        bundle.putInt(INSTANCE_CLOCKWISE_REACHED_BAR_COLOR, getClockwiseReachedArcColor());
+        bundle.putInt(INSTANCE_CLOCKWISE_OUTLINE_BAR_COLOR, getClockwiseOutlineArcColor());
+        bundle.putFloat(INSTANCE_COUNTER_CLOCKWISE_REACHED_BAR_HEIGHT, getCounterClockwiseReachedArcWidth());
+        bundle.putFloat(INSTANCE_COUNTER_CLOCKWISE_OUTLINE_BAR_HEIGHT, getCounterClockwiseOutlineArcWidth());
+        bundle.putInt(INSTANCE_COUNTER_CLOCKWISE_REACHED_BAR_COLOR, getCounterClockwiseReachedArcColor());
+        bundle.putInt(INSTANCE_COUNTER_CLOCKWISE_OUTLINE_BAR_COLOR, getCounterClockwiseOutlineArcColor());
+        bundle.putBoolean(INSTANCE_CIRCLE_FILL_ENABLED, isCircleFillEnabled());
+        bundle.putInt(INSTANCE_CIRCLE_FILL_COLOR, getCircleFillColor());
+        bundle.putInt(INSTANCE_MAX, getMax());
+        bundle.putFloat(INSTANCE_PROGRESS, getProgress());
+        bundle.putString(INSTANCE_SUFFIX, getSuffix());
+        bundle.putString(INSTANCE_PREFIX, getPrefix());
+        bundle.putBoolean(INSTANCE_LABEL_ENABLED, isLabelEnabled());
+        return bundle;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (state instanceof Bundle) {
+            final Bundle bundle = (Bundle) state;
+            mStartLineEnabled = bundle.getBoolean(INSTANCE_START_LINE_ENABLED);
+            CircularBarStyle style = new CircularBarStyle(bundle.getInt(INSTANCE_CLOCKWISE_REACHED_BAR_COLOR),
+                    bundle.getInt(INSTANCE_CLOCKWISE_OUTLINE_BAR_COLOR),
+                    bundle.getInt(INSTANCE_COUNTER_CLOCKWISE_REACHED_BAR_COLOR),
+                    bundle.getInt(INSTANCE_COUNTER_CLOCKWISE_OUTLINE_BAR_COLOR),
+                    bundle.getInt(INSTANCE_CIRCLE_FILL_COLOR),
+                    bundle.getFloat(INSTANCE_CLOCKWISE_REACHED_BAR_HEIGHT),
+                    bundle.getFloat(INSTANCE_CLOCKWISE_OUTLINE_BAR_HEIGHT),
+                    bundle.getFloat(INSTANCE_COUNTER_CLOCKWISE_REACHED_BAR_HEIGHT),
+                    bundle.getFloat(INSTANCE_COUNTER_CLOCKWISE_OUTLINE_BAR_HEIGHT));
+            mCircleFillEnabled = bundle.getBoolean(INSTANCE_CIRCLE_FILL_ENABLED);
+            mCircleFillMode = bundle.getInt(INSTANCE_CIRCLE_FILL_MODE);
+            //Reuse the current style, possibly shared, if nothing changed
+            if (!style.equals(mBarStyle)) {
+                mBarStyle = style;
+            }
+            initializePainters();
+            calculateDrawRectF();
+            setMax(bundle.getInt(INSTANCE_MAX));
+            setProgress(bundle.getFloat(INSTANCE_PROGRESS));
+            setPrefix(bundle.getString(INSTANCE_PREFIX));
+            setSuffix(bundle.getString(INSTANCE_SUFFIX));
+            setLabelEnabled(bundle.getBoolean(INSTANCE_LABEL_ENABLED));
+            super.onRestoreInstanceState(bundle.getParcelable(INSTANCE_STATE));
+            return;
+        }
+        super.onRestoreInstanceState(state);
+    }
+
+    /**
+     * Loads the styles and attributes defined in the xml tag of this class
+     *
+     * @param attrs        The attributes to read from
+     * @param defStyleAttr The styles to read from
+     */
+    public void loadStyledAttributes(AttributeSet attrs, int defStyleAttr) {
+        if (attrs != null) {
+            final TypedArray attributes = mContext.getTheme().obtainStyledAttributes(attrs, R.styleable.CircularViewPager,
+                    defStyleAttr, 0);
 
-            mClockwiseArcColor = attributes.getColor(R.styleable.CircularViewPager_progress_arc_clockwise_color, default_clockwise_reached_color);
-            mCounterClockwiseArcColor = attributes.getColor(R.styleable.CircularViewPager_progress_arc_counter_clockwise_color, default_counter_clockwise_reached_color);
-            mClockwiseOutlineArcColor = attributes.getColor(R.styleable.CircularViewPager_progress_arc_clockwise_outline_color, default_clockwise_outline_color);
-            mCounterClockwiseOutlineArcColor = attributes.getColor(R.styleable.CircularViewPager_progress_arc_counter_clockwise_outline_color, default_counter_clockwise_outline_color);
+            mStartLineEnabled = attributes.getBoolean(R.styleable.CircularViewPager_progress_start_line_enabled, true);
 
-            mClockwiseReachedArcWidth = attributes.getDimension(R.styleable.CircularViewPager_progress_arc_clockwise_width, default_reached_arc_width);
-            mCounterClockwiseReachedArcWidth = attributes.getDimension(R.styleable.CircularViewPager_progress_arc_counter_clockwise_width, default_reached_arc_width);
-            mClockwiseOutlineArcWidth = attributes.getDimension(R.styleable.CircularViewPager_progress_arc_clockwise_outline_width, default_outline_arc_width);
-            mCounterClockwiseOutlineArcWidth = attributes.getDimension(R.styleable.CircularViewPager_progress_arc_counter_clockwise_outline_width, default_outline_arc_width);
+            int circleFillColor = attributes.getColor(R.styleable.CircularViewPager_progress_pager_fill_circle_color, default_circle_fill_color);
+            mBarStyle = new CircularBarStyle(
+                    attributes.getColor(R.styleable.CircularViewPager_progress_arc_clockwise_color, default_clockwise_reached_color),
+                    attributes.getColor(R.styleable.CircularViewPager_progress_arc_clockwise_outline_color, default_clockwise_outline_color),
+                    attributes.getColor(R.styleable.CircularViewPager_progress_arc_counter_clockwise_color, default_counter_clockwise_reached_color),
+                    attributes.getColor(R.styleable.CircularViewPager_progress_arc_counter_clockwise_outline_color, default_counter_clockwise_outline_color),
+                    circleFillColor,
+                    attributes.getDimension(R.styleable.CircularViewPager_progress_arc_clockwise_width, default_reached_arc_width),
+                    attributes.getDimension(R.styleable.CircularViewPager_progress_arc_clockwise_outline_width, default_outline_arc_width),
+                    attributes.getDimension(R.styleable.CircularViewPager_progress_arc_counter_clockwise_width, default_reached_arc_width),
+                    attributes.getDimension(R.styleable.CircularViewPager_progress_arc_counter_clockwise_outline_width, default_outline_arc_width));
 
-            mCircleFillColor = attributes.getColor(R.styleable.CircularViewPager_progress_pager_fill_circle_color, default_circle_fill_color);
             mCircleFillMode = attributes.getInt(R.styleable.CircularViewPager_progress_pager_fill_mode, default_circle_fill_mode);
-            cicleFillEnable(mCircleFillColor != default_circle_fill_color);
+            cicleFillEnable(circleFillColor != default_circle_fill_color);
+
+            mLabelTextSize = attributes.getDimension(R.styleable.CircularViewPager_progress_label_size, mLabelTextSize);
+            mLabelColor = attributes.getColor(R.styleable.CircularViewPager_progress_label_color, default_label_color);
+            setLabelEnabled(attributes.getBoolean(R.styleable.CircularViewPager_progress_label_enabled, false));
 
             setMax(attributes.getInt(R.styleable.CircularViewPager_progress_arc_max, 100));
             setProgress(attributes.getInt(R.styleable.CircularViewPager_arc_progress, 0));
@@ -462,6 +992,7 @@ public class CircularBar extends View implements Animator.AnimatorListener {
             attributes.recycle();
 
             initializePainters();
+            calculateDrawRectF();
         }
     }
 
@@ -494,13 +1025,43 @@ public class CircularBar extends View implements Animator.AnimatorListener {
     }
 
     /**
-     * Calculates the coordinates of {@link #mOutlineArcRectF} and
-     * {@link #mReachedArcRectF}
+     * Calculates the coordinates of {@link #mFillCircleRectF}, {@link #mOutlineArcRectF} and
+     * {@link #mReachedArcRectF}. Only needs to be called when the size, the padding or the widths change,
+     * the rects are updated in place.
      */
     protected void calculateDrawRectF() {
-        mFillCircleRectF = getArcRect(mClockwiseReachedArcWidth);
-        mReachedArcRectF = getArcRect(mClockwiseReachedArcWidth / 2);
-        mOutlineArcRectF = getArcRect(mClockwiseOutlineArcWidth / 2);
+        float reachedArcWidth = mBarStyle.getClockwiseReachedArcWidth();
+        getArcRect(reachedArcWidth, mFillCircleRectF);
+        getArcRect(reachedArcWidth / 2, mReachedArcRectF);
+        mDiameter = getArcRect(mBarStyle.getClockwiseOutlineArcWidth() / 2, mOutlineArcRectF);
+        calculateRingRectFs();
+        invalidateLabel();
+        updateLevelOfDetail();
+        updateGradientPaints();
+        invalidateStaticLayer();
+        invalidateRenderCache();
+    }
+
+    /**
+     * Lays the rings out inside the ring of the bar, each one offset by the widths of the rings around it,
+     * and computes {@link #mInnerRingRectF}
+     */
+    private void calculateRingRectFs() {
+        if (mRings.isEmpty()) {
+            mInnerRingRectF.set(mFillCircleRectF);
+            return;
+        }
+        float offset = Math.max(mBarStyle.getClockwiseReachedArcWidth(), mBarStyle.getClockwiseOutlineArcWidth());
+        for (int index = 0; index < mRings.size(); index++) {
+            Ring ring = mRings.get(index);
+            float reachedArcWidth = ring.mStyle.getClockwiseReachedArcWidth();
+            float outlineArcWidth = ring.mStyle.getClockwiseOutlineArcWidth();
+            offset += mRingGap;
+            getArcRect(offset + reachedArcWidth / 2, ring.mReachedArcRectF);
+            getArcRect(offset + outlineArcWidth / 2, ring.mOutlineArcRectF);
+            offset += Math.max(reachedArcWidth, outlineArcWidth);
+        }
+        getArcRect(offset, mInnerRingRectF);
     }
 
     /**
@@ -508,88 +1069,326 @@ public class CircularBar extends View implements Animator.AnimatorListener {
      * are perfectly within the available window
      *
      * @param offset Half the width of the pain stroke
-     * @return The rectF
-     */
-    private RectF getArcRect(float offset) {
-        RectF workingSurface = new RectF();
-        workingSurface.left = getPaddingLeft() + offset;
-        workingSurface.top = getPaddingTop() + offset;
-        workingSurface.right = getWidth() - getPaddingRight() - offset;
-        workingSurface.bottom = getHeight() - getPaddingBottom() - offset;
-
-        float width = workingSurface.right - workingSurface.left;
-        float height = workingSurface.bottom - workingSurface.top;
-
-        this.mDiameter = Math.min(width, height);
-        float radius = mDiameter / 2;
-        float centerX = width / 2;
-        float centerY = height / 2;
-
-        //float left, float top, float right, float bottom
-        return new RectF(centerX - radius + offset, centerY - radius + offset, centerX + radius + offset, centerY + radius + offset);
+     * @param rectF  The rectF to update
+     * @return The diameter of the circle
+     */
+    private float getArcRect(float offset, RectF rectF) {
+        float diameter = ArcGeometry.getArcRect(getWidth(), getHeight(), getPaddingLeft(), getPaddingTop(),
+                getPaddingRight(), getPaddingBottom(), offset, mArcRect);
+        rectF.set(mArcRect[ArcGeometry.LEFT], mArcRect[ArcGeometry.TOP], mArcRect[ArcGeometry.RIGHT], mArcRect[ArcGeometry.BOTTOM]);
+        return diameter;
     }
 
     /**
-     * Initializes the paints used for the bars
+     * Picks the paints used for the bars from {@link #mBarStyle}, matching the direction of the progress
      */
     private void initializePainters() {
-        mClockwiseReachedArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mClockwiseReachedArcPaint.setColor(mClockwiseArcColor);
-        mClockwiseReachedArcPaint.setAntiAlias(true);
-        mClockwiseReachedArcPaint.setStrokeWidth(mClockwiseReachedArcWidth);
-        mClockwiseReachedArcPaint.setStyle(Paint.Style.STROKE);
-
-        mCounterClockwiseReachedArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mCounterClockwiseReachedArcPaint.setColor(mCounterClockwiseArcColor);
-        mCounterClockwiseReachedArcPaint.setAntiAlias(true);
-        mCounterClockwiseReachedArcPaint.setStrokeWidth(mCounterClockwiseReachedArcWidth);
-        mCounterClockwiseReachedArcPaint.setStyle(Paint.Style.STROKE);
-
-        mClockwiseOutlineArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mClockwiseOutlineArcPaint.setColor(mClockwiseOutlineArcColor);
-        mClockwiseOutlineArcPaint.setAntiAlias(true);
-        mClockwiseOutlineArcPaint.setStrokeWidth(mClockwiseOutlineArcWidth);
-        mClockwiseOutlineArcPaint.setStyle(Paint.Style.STROKE);
-
-        mCounterClockwiseOutlineArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mCounterClockwiseOutlineArcPaint.setColor(mCounterClockwiseOutlineArcColor);
-        mCounterClockwiseOutlineArcPaint.setAntiAlias(true);
-        mCounterClockwiseOutlineArcPaint.setStrokeWidth(mCounterClockwiseOutlineArcWidth);
-        mCounterClockwiseOutlineArcPaint.setStyle(Paint.Style.STROKE);
-
-        mCircleFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        mCircleFillPaint.setColor(mCircleFillColor);
-        mCircleFillPaint.setAntiAlias(true);
-        mCircleFillPaint.setStyle(Paint.Style.FILL);
-
-        //Defaults
-        mReachedArcPaint = mClockwiseReachedArcPaint;
-        mOutlineArcPaint = mClockwiseOutlineArcPaint;
+        mCircleFillPaint = mBarStyle.getCircleFillPaint();
+        if (progress >= 0) {
+            mReachedArcPaint = mBarStyle.getClockwiseReachedArcPaint();
+            mOutlineArcPaint = mBarStyle.getClockwiseOutlineArcPaint();
+        } else {
+            mReachedArcPaint = mBarStyle.getCounterClockwiseReachedArcPaint();
+            mOutlineArcPaint = mBarStyle.getCounterClockwiseOutlineArcPaint();
+        }
+        updateGradientPaints();
+        invalidateStaticLayer();
+    }
+
+    /**
+     * Replaces the style paints that have a gradient by the gradient paints, built for the current size
+     */
+    private void updateGradientPaints() {
+        if (mReachedArcGradient != null) {
+            mReachedArcPaint = mReachedArcGradient.getPaint(progress >= 0 ? mBarStyle.getClockwiseReachedArcPaint()
+                    : mBarStyle.getCounterClockwiseReachedArcPaint(), mOutlineArcRectF, mGradientRotation);
+        }
+        if (mOutlineArcGradient != null) {
+            mOutlineArcPaint = mOutlineArcGradient.getPaint(progress >= 0 ? mBarStyle.getClockwiseOutlineArcPaint()
+                    : mBarStyle.getCounterClockwiseOutlineArcPaint(), mOutlineArcRectF, mGradientRotation);
+        }
+        if (mCircleFillGradient != null) {
+            mCircleFillPaint = mCircleFillGradient.getPaint(mBarStyle.getCircleFillPaint(), mOutlineArcRectF, mGradientRotation);
+        }
     }
 
     @Override
     public void onAnimationStart(Animator animation) {
-
+        if (animation == mProgressAnimator) {
+            for (int index = 0; index < mListeners.size(); index++) {
+                mListeners.get(index).onAnimationStart(animation);
+            }
+        }
     }
 
     @Override
     public void onAnimationEnd(Animator animation) {
-        //Round off the sweep angles that can result from rounding errors at the end
-        for (ProgressSweep progressSweep : mProgressSweepList) {
-            progressSweep.reachedSweep = Math.round(progressSweep.reachedSweep);
-            progressSweep.outlineSweep = Math.round(progressSweep.outlineSweep);
+        //Round off the sweep angles that can result from rounding errors at the end,
+        //unless the animation goes on to a new target
+        if (!mRetargeting && mArcSegments.roundSweeps()) {
+            mArcRunsDirty = true;
         }
         invalidate();
+        if (animation == mProgressAnimator) {
+            for (int index = 0; index < mListeners.size(); index++) {
+                mListeners.get(index).onAnimationEnd(animation);
+            }
+        }
     }
 
     @Override
     public void onAnimationCancel(Animator animation) {
-
+        if (animation == mProgressAnimator) {
+            for (int index = 0; index < mListeners.size(); index++) {
+                mListeners.get(index).onAnimationCancel(animation);
+            }
+        }
     }
 
     @Override
     public void onAnimationRepeat(Animator animation) {
+        if (animation == mProgressAnimator) {
+            for (int index = 0; index < mListeners.size(); index++) {
+                mListeners.get(index).onAnimationRepeat(animation);
+            }
+        }
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        //The animated fraction is a primitive, unlike the animated value
+        setProgress(mProgressTween.getValue(animation.getAnimatedFraction()));
+    }
+
+    /**
+     * Animates the progress from its current value to the target. A running animation is
+     * cancelled and replaced, the new one starting with the current velocity so the bar does not
+     * stop or jump when the target changes quickly. A bar animates with at most one animator.
+     *
+     * @param target   The value to set it to
+     * @param duration The the time to run the animation over
+     */
+    public void animateProgressTo(float target, int duration) {
+        fillDefaultSegment();
+        startProgressAnimation(progress, target, getProgressVelocity(), duration);
+    }
+
+    /**
+     * Fills the single segment of a bar without {@link #setCirclePieceFill(int, long)}, so that the reached arc
+     * of an animated progress is drawn. The segment is either missing or left unfilled by {@link #updateProgress(float)},
+     * as on a bar inflated from XML.
+     */
+    private void fillDefaultSegment() {
+        if (mArcSegments.getCount() == 0 || (mArcSegments.getCount() == 1 && !mArcSegments.isFilled(0))) {
+            setCirclePieceFill(1, 1L);
+        }
+    }
+
+    /**
+     * Moves the progress to the target with a spring, see {@link #setProgressSpring(float, float)}.
+     * Unlike a timed animation there is no duration: calling it again while the spring moves
+     * only changes the target, which suits progress fed by live data. A running animation
+     * is replaced, the spring starting with its velocity.
+     *
+     * @param target The value to set it to
+     */
+    public void springProgressTo(float target) {
+        springProgressTo(target, getProgressVelocity() * 1000);
+    }
+
+    /**
+     * Flings the progress with a velocity, then lets a spring bring it to the target
+     *
+     * @param target   The value to set it to
+     * @param velocity The velocity to start with, in progress per second
+     */
+    public void springProgressTo(float target, float velocity) {
+        fillDefaultSegment();
+        if (mProgressAnimator != null && mProgressAnimator.isStarted()) {
+            mRetargeting = true;
+            mProgressAnimator.cancel();
+            mRetargeting = false;
+        }
+        mSpring.setState(progress, velocity);
+        mSpring.setTarget(target);
+        mSpring.setRestThresholds(mMax * 1e-4f, mMax * 1e-3f);
+        stopClockTween();
+        if (!mSpringRunning) {
+            mSpringRunning = true;
+            mSpringFrameTime = AnimationUtils.currentAnimationTimeMillis();
+            if (mSharedClockEnabled) {
+                CircularBarClock.getInstance().add(this);
+            } else {
+                ViewCompat.postOnAnimation(this, mSpringFrame);
+            }
+        }
+    }
+
+    /**
+     * Sets the spring of {@link #springProgressTo(float)}
+     *
+     * @param stiffness    The stiffness in 1/s^2, higher is faster, {@link SpringIntegrator#STIFFNESS_MEDIUM} by default
+     * @param dampingRatio The damping ratio, 1 for no bounce, lower to bounce around the target,
+     *                     {@link SpringIntegrator#DAMPING_RATIO_CRITICAL} by default
+     */
+    public void setProgressSpring(float stiffness, float dampingRatio) {
+        mSpring.setSpring(stiffness, dampingRatio);
+    }
+
+    /**
+     * Integrates {@link #mSpring} over the time since the last frame, and schedules the next one
+     * until it comes to rest exactly on its target
+     */
+    private void onSpringFrame() {
+        if (mSpringRunning && stepSpring(AnimationUtils.currentAnimationTimeMillis())) {
+            ViewCompat.postOnAnimation(this, mSpringFrame);
+        }
+    }
+
+    /**
+     * Integrates {@link #mSpring} up to the frame time
+     *
+     * @param frameTime The time of the frame
+     * @return True if the spring is still moving
+     */
+    private boolean stepSpring(long frameTime) {
+        boolean moving = mSpring.advance(frameTime - mSpringFrameTime);
+        mSpringFrameTime = frameTime;
+        setProgress(mSpring.getPosition());
+        if (!moving) {
+            mSpringRunning = false;
+            if (mArcSegments.roundSweeps()) {
+                mArcRunsDirty = true;
+            }
+            invalidate();
+        }
+        return moving;
+    }
+
+    /**
+     * Advances the animation of the bar, called by the {@link CircularBarClock} on each frame
+     *
+     * @param frameTime The time of the frame in the {@link AnimationUtils#currentAnimationTimeMillis()} time base
+     * @return True if the bar is still animating and needs the next frame
+     */
+    boolean onClockFrame(long frameTime) {
+        boolean ringsRunning = mRingAnimationRunning && stepRings(frameTime);
+        if (!mSharedClockEnabled) {
+            return ringsRunning;
+        }
+        if (mClockTweenRunning) {
+            float fraction = getClockTweenFraction(frameTime);
+            setProgress(mProgressTween.getValue(fraction));
+            if (fraction >= 1) {
+                mClockTweenRunning = false;
+                if (mArcSegments.roundSweeps()) {
+                    mArcRunsDirty = true;
+                }
+                invalidate();
+                return ringsRunning;
+            }
+            return true;
+        }
+        if (mSpringRunning) {
+            return stepSpring(frameTime) || ringsRunning;
+        }
+        return ringsRunning;
+    }
+
+    /**
+     * Advances the animations of the rings to a frame, with a single invalidate
+     *
+     * @param frameTime The time of the frame
+     * @return True if a ring is still animating
+     */
+    private boolean stepRings(long frameTime) {
+        boolean running = false;
+        for (int index = 0; index < mRings.size(); index++) {
+            Ring ring = mRings.get(index);
+            if (!ring.mTweenRunning) {
+                continue;
+            }
+            float fraction = ring.mTweenDuration <= 0 ? 1
+                    : Math.min(1f, Math.max(0, frameTime - ring.mTweenStartTime) / (float) ring.mTweenDuration);
+            ring.mProgress = ring.mTweenStart + (ring.mTweenEnd - ring.mTweenStart) * mProgressEasing.getValue(fraction);
+            if (fraction >= 1) {
+                ring.mProgress = ring.mTweenEnd;
+                ring.mTweenRunning = false;
+            } else {
+                running = true;
+            }
+        }
+        mRingAnimationRunning = running;
+        invalidate();
+        return running;
+    }
+
+    /**
+     * @param frameTime The time of the frame
+     * @return The linear fraction of the animation run by the {@link CircularBarClock}
+     */
+    private float getClockTweenFraction(long frameTime) {
+        if (mClockTweenDuration <= 0) {
+            return 1;
+        }
+        return Math.min(1f, Math.max(0, frameTime - mClockTweenStartTime) / (float) mClockTweenDuration);
+    }
+
+    /**
+     * Stops the animation run by the {@link CircularBarClock}
+     */
+    private void stopClockTween() {
+        //The clock drops the bar on its next frame
+        mClockTweenRunning = false;
+    }
+
+    /**
+     * Animates the progress of this bar with the {@link CircularBarClock} shared by every bar
+     * enabling it, instead of an animator of its own. Worth it when many bars animate at once,
+     * eg. in lists and grids. The animation listeners are not called for these animations.
+     *
+     * @param enabled True to use the shared clock, false otherwise
+     */
+    public void setSharedClockEnabled(boolean enabled) {
+        if (mSharedClockEnabled != enabled) {
+            cancelProgressAnimation();
+            mSharedClockEnabled = enabled;
+        }
+    }
+
+    /**
+     * Indicates if the progress is animated by the {@link CircularBarClock}, see {@link #setSharedClockEnabled(boolean)}
+     *
+     * @return
+     */
+    public boolean isSharedClockEnabled() {
+        return mSharedClockEnabled;
+    }
+
+    /**
+     * Stops scheduling frames for {@link #mSpring}
+     */
+    private void stopSpring() {
+        mSpringRunning = false;
+        removeCallbacks(mSpringFrame);
+    }
 
+    /**
+     * The velocity of the running animation or spring
+     *
+     * @return The velocity, in progress per millisecond
+     */
+    private float getProgressVelocity() {
+        if (mProgressAnimator != null && mProgressAnimator.isStarted()) {
+            return mProgressTween.getVelocity(mProgressAnimator.getAnimatedFraction(), mProgressAnimator.getDuration());
+        }
+        if (mClockTweenRunning) {
+            return mProgressTween.getVelocity(getClockTweenFraction(AnimationUtils.currentAnimationTimeMillis()), mClockTweenDuration);
+        }
+        if (mSpringRunning) {
+            return mSpring.getVelocity() / 1000;
+        }
+        return 0;
     }
 
     /**
@@ -600,410 +1399,1170 @@ public class CircularBar extends View implements Animator.AnimatorListener {
      * @param duration The the time to run the animation over
      */
     public void animateProgress(int start, int end, int duration) {
-        List<Boolean> list = new ArrayList<>();
-        list.add(true);
-        mCirclePieceFillList = list;
+        setCirclePieceFill(1, 1L);
         setProgress(0);
-        AnimatorSet set = new AnimatorSet();
-        set.playTogether(Glider.glide(Skill.QuadEaseInOut, duration, ObjectAnimator.ofFloat(this, "progress", start, end)));
-        set.setDuration(duration);
-        set = addListenersToSet(set);
-        set.start();
+        startProgressAnimation(start, end, 0, duration);
     }
 
     /**
      * Animate the change in progress of this view
      *
-     * @param duration The the time to run the animation over
+     * @param circlePieceFillList The filled state of each equal part of the circle
+     * @param duration            The the time to run the animation over
      */
     public void animateProgress(List<Boolean> circlePieceFillList, int duration) {
-        mCirclePieceFillList = circlePieceFillList;
-        AnimatorSet set = new AnimatorSet();
-        set.playTogether(Glider.glide(Skill.QuadEaseInOut, duration, ObjectAnimator.ofFloat(this, "progress", 0, 100)));
-        set.setDuration(duration);
-        set = addListenersToSet(set);
-        set.start();
+        setCirclePieceFill(circlePieceFillList);
+        animatePieces(duration);
     }
 
     /**
-     * Adds the current listeners to the {@link android.animation.AnimatorSet}
-     * before animation starts
+     * Animate the change in progress of this view
      *
-     * @param set The set to add listeners to
-     * @return The set with listeners added
+     * @param circlePieceFill The filled state of each equal part of the circle
+     * @param duration        The the time to run the animation over
      */
-    protected AnimatorSet addListenersToSet(AnimatorSet set) {
-        if (set != null) {
-            set.addListener(this);
-            if (mListeners != null) {
-                for (Animator.AnimatorListener listener : mListeners) {
-                    set.addListener(listener);
-                }
+    public void animateProgress(boolean[] circlePieceFill, int duration) {
+        setCirclePieceFill(circlePieceFill);
+        animatePieces(duration);
+    }
+
+    /**
+     * Animate the change in progress of this view
+     *
+     * @param circlePieceFill The filled state of each equal part of the circle, bit i set if part i is filled
+     * @param count           The number of equal parts of the circle
+     * @param duration        The the time to run the animation over
+     */
+    public void animateProgress(BitSet circlePieceFill, int count, int duration) {
+        setCirclePieceFill(circlePieceFill, count);
+        animatePieces(duration);
+    }
+
+    /**
+     * Animate the change in progress of this view
+     *
+     * @param count           The number of equal parts of the circle, at most 64
+     * @param circlePieceMask The filled state of each equal part of the circle, bit i set if part i is filled
+     * @param duration        The the time to run the animation over
+     */
+    public void animateProgress(int count, long circlePieceMask, int duration) {
+        setCirclePieceFill(count, circlePieceMask);
+        animatePieces(duration);
+    }
+
+    /**
+     * Animates the filled parts of the circle from 0 to 100
+     *
+     * @param duration The the time to run the animation over
+     */
+    private void animatePieces(int duration) {
+        startProgressAnimation(0, 100, 0, duration);
+    }
+
+    /**
+     * Animates the progress with {@link #mProgressAnimator}, cancelling the running animation if any
+     *
+     * @param start    The value to start from
+     * @param end      The value to set it to
+     * @param velocity The velocity to start with, in progress per millisecond
+     * @param duration The the time to run the animation over
+     */
+    private void startProgressAnimation(float start, float end, float velocity, int duration) {
+        stopSpring();
+        if (mSharedClockEnabled) {
+            mProgressTween.setEasing(mProgressEasing);
+            mProgressTween.set(start, end, velocity, duration);
+            mClockTweenStartTime = AnimationUtils.currentAnimationTimeMillis();
+            mClockTweenDuration = duration;
+            mClockTweenRunning = true;
+            CircularBarClock.getInstance().add(this);
+            return;
+        }
+        if (mProgressAnimator == null) {
+            mProgressAnimator = ValueAnimator.ofFloat(0f, 1f);
+            //Linear, the easing is done by mProgressTween
+            mProgressAnimator.setInterpolator(null);
+            mProgressAnimator.addListener(this);
+            mProgressAnimator.addUpdateListener(this);
+        } else if (mProgressAnimator.isStarted()) {
+            mRetargeting = true;
+            mProgressAnimator.cancel();
+            mRetargeting = false;
+        }
+        mProgressTween.setEasing(mProgressEasing);
+        mProgressTween.set(start, end, velocity, duration);
+        mProgressAnimator.setDuration(duration);
+        mProgressAnimator.start();
+    }
+
+    /**
+     * Stops the running progress animation, if any, leaving the progress where it is
+     */
+    public void cancelProgressAnimation() {
+        stopSpring();
+        stopClockTween();
+        if (mProgressAnimator != null) {
+            mProgressAnimator.cancel();
+        }
+    }
+
+    /**
+     * Indicates if the progress is being animated, or moved by its spring
+     *
+     * @return
+     */
+    public boolean isProgressAnimationRunning() {
+        return mSpringRunning || mClockTweenRunning || (mProgressAnimator != null && mProgressAnimator.isStarted());
+    }
+
+    /**
+     * Sets the easing of the progress animations, {@link EasingTable#QUAD_IN_OUT} by default.
+     * Use {@link EasingTable#create(EasingTable.Curve, int)} for a custom curve.
+     * Applies from the next animation.
+     *
+     * @param easing The easing, not null
+     */
+    public void setProgressEasing(EasingTable easing) {
+        if (easing != null) {
+            mProgressEasing = easing;
+        }
+    }
+
+    /**
+     * The easing of the progress animations, see {@link #setProgressEasing(EasingTable)}
+     *
+     * @return
+     */
+    public EasingTable getProgressEasing() {
+        return mProgressEasing;
+    }
+
+    /**
+     * Adds the current listeners to the {@link android.animation.AnimatorSet}
+     * before animation starts, for sets animating the bar with {@link #PROGRESS}
+     *
+     * @param set The set to add listeners to
+     * @return The set with listeners added
+     */
+    protected AnimatorSet addListenersToSet(AnimatorSet set) {
+        if (set != null) {
+            set.addListener(this);
+            if (mListeners != null) {
+                for (Animator.AnimatorListener listener : mListeners) {
+                    set.addListener(listener);
+                }
+            }
+        }
+        return set;
+    }
+
+
+    /**
+     * Method to add a listener to call on animations. Listeners are called with the progress animator
+     * of the bar, that is reused between animations
+     *
+     * @param listener The listener to call
+     */
+    public void addListener(Animator.AnimatorListener listener) {
+        mListeners.add(listener);
+    }
+
+    /**
+     * Removes the listener provided
+     *
+     * @param listener The listener to remove
+     * @return True if it was in the list and removed, false otherwise
+     */
+    public boolean removeListener(Animator.AnimatorListener listener) {
+        return mListeners.remove(listener);
+    }
+
+    /**
+     * Removes all animation listeners
+     */
+    public void removeAllListeners() {
+        mListeners = new ArrayList<>();
+    }
+
+    /**
+     * Get the suffix
+     *
+     * @return
+     */
+    public String getSuffix() {
+        return mSuffix;
+    }
+
+    /**
+     * Get the prefix
+     *
+     * @return
+     */
+    public String getPrefix() {
+        return mPrefix;
+    }
+
+    /**
+     * The boolean that indicates if we must draw the start line or not
+     *
+     * @return
+     */
+    public boolean isStartLineEnabled() {
+        return mStartLineEnabled;
+    }
+
+    /**
+     * The float computed in {@link #calculateDrawRectF()} that is the diameter of the drawn circle.
+     *
+     * @return
+     */
+    public float getDiameter() {
+        return mDiameter;
+    }
+
+    /**
+     * The clockwise outline arc color
+     *
+     * @return
+     */
+    public int getClockwiseOutlineArcColor() {
+        return mBarStyle.getClockwiseOutlineArcColor();
+    }
+
+    /**
+     * The clockwise reached arc color
+     *
+     * @return
+     */
+    public int getClockwiseReachedArcColor() {
+        return mBarStyle.getClockwiseReachedArcColor();
+    }
+
+    /**
+     * The current progress
+     *
+     * @return
+     */
+    public float getProgress() {
+        return progress;
+    }
+
+    /**
+     * A snapshot of the progress and segments of this bar, to draw it with a {@link CircularBarRenderer}
+     * along with {@link #getBarStyle()}, eg. from a background thread
+     *
+     * @return The immutable state of this bar
+     */
+    public CircularBarState getState() {
+        int count = mArcSegments.getCount();
+        BitSet filled = new BitSet(count);
+        for (int index = 0; index < count; index++) {
+            filled.set(index, mArcSegments.isFilled(index));
+        }
+        return new CircularBarState(progress, mMax)
+                .withSegments(filled, count)
+                .withCircleFill(mCircleFillEnabled, CircleFillMode.getMode(mCircleFillMode))
+                .withStartLineEnabled(mStartLineEnabled);
+    }
+
+    /**
+     * The current reached state for each arc. Builds a new list, prefer {@link #isCirclePieceFilled(int)}
+     * in loops.
+     *
+     * @return
+     */
+    public List<Boolean> getCirclePieceFillList() {
+        return mArcSegments.toList();
+    }
+
+    /**
+     * The number of equal parts the circle arc is divided into
+     *
+     * @return
+     */
+    public int getCirclePieceCount() {
+        return mArcSegments.getCount();
+    }
+
+    /**
+     * The reached state of an arc
+     *
+     * @param index The index of the arc
+     * @return
+     */
+    public boolean isCirclePieceFilled(int index) {
+        return mArcSegments.isFilled(index);
+    }
+
+    /**
+     * Get the max of the reached arc, defaults to 100
+     *
+     * @return
+     */
+    public int getMax() {
+        return mMax;
+    }
+
+    /**
+     * Get the height of the {@link CircularBarStyle#getClockwiseReachedArcWidth()}
+     *
+     * @return
+     */
+    public float getClockwiseReachedArcWidth() {
+        return mBarStyle.getClockwiseReachedArcWidth();
+    }
+
+    /**
+     * Get the height of the {@link CircularBarStyle#getClockwiseOutlineArcWidth()}
+     *
+     * @return
+     */
+    public float getClockwiseOutlineArcWidth() {
+        return mBarStyle.getClockwiseOutlineArcWidth();
+    }
+
+    /**
+     * The counter clockwise outline arc color
+     *
+     * @return
+     */
+    public int getCounterClockwiseReachedArcColor() {
+        return mBarStyle.getCounterClockwiseReachedArcColor();
+    }
+
+    /**
+     * The counter clockwise outline arc color
+     *
+     * @return
+     */
+    public int getCounterClockwiseOutlineArcColor() {
+        return mBarStyle.getCounterClockwiseOutlineArcColor();
+    }
+
+    /**
+     * The color to fill the circle center
+     *
+     * @return
+     */
+    public int getCircleFillColor() {
+        return mBarStyle.getCircleFillColor();
+    }
+
+    /**
+     * Get the height of the {@link CircularBarStyle#getCounterClockwiseReachedArcWidth()}
+     *
+     * @return
+     */
+    public float getCounterClockwiseReachedArcWidth() {
+        return mBarStyle.getCounterClockwiseReachedArcWidth();
+    }
+
+    /**
+     * Get the height of the {@link CircularBarStyle#getCounterClockwiseOutlineArcWidth()}
+     *
+     * @return
+     */
+    public float getCounterClockwiseOutlineArcWidth() {
+        return mBarStyle.getCounterClockwiseOutlineArcWidth();
+    }
+
+    /**
+     * Sets whether the circle drawn inside and filled.
+     *
+     * @return
+     */
+    public boolean isCircleFillEnabled() {
+        return mCircleFillEnabled;
+    }
+
+    /**
+     * Sets the enabled state of the circle fill
+     *
+     * @param enable
+     */
+    public void cicleFillEnable(boolean enable) {
+        mCircleFillEnabled = enable;
+        invalidateStaticLayer();
+        invalidateRenderCache();
+    }
+
+    /**
+     * Enables the caching of the static parts of the bar: the {@link CircleFillMode#DEFAULT} fill
+     * and the outline ring are rasterized once into a bitmap, and each frame only blits it and draws
+     * the reached arcs on top. The cache is rebuilt when the size, the colors, the widths or the segments change.
+     * Use it when the reached arc is at least as wide as the outline arc and opaque, as the full outline
+     * ring is drawn under it. Costs a bitmap of the size of the view.
+     *
+     * @param enabled True to enable the cache, false otherwise
+     */
+    public void setStaticLayerCacheEnabled(boolean enabled) {
+        mStaticLayerCacheEnabled = enabled;
+        if (!enabled) {
+            mStaticLayerBitmap = null;
+            mStaticLayerCanvas = null;
+        }
+        invalidateStaticLayer();
+        invalidate();
+    }
+
+    /**
+     * Enables the recording of the render metrics of this bar, see {@link #getMetrics()}.
+     * Disabled by default, when it costs nothing.
+     *
+     * @param enabled True to record the metrics, false to stop and drop them
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled && mMetrics == null) {
+            mMetrics = new CircularBarMetrics();
+        } else if (!enabled) {
+            mMetrics = null;
+        }
+    }
+
+    /**
+     * The render metrics of this bar, see {@link #setMetricsEnabled(boolean)}
+     *
+     * @return The live metrics, null if disabled
+     */
+    public CircularBarMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Sets the min length in pixels of the reached arc of a segment. When the circle is divided into more
+     * segments than it has room for, consecutive segments are grouped into buckets drawn as a single arc,
+     * partially reached in proportion to the filled segments it holds.
+     * The cost of drawing is then bounded by the size of the circle instead of the number of segments.
+     *
+     * @param minArcLength The length in pixels, 0 to always draw each segment (default)
+     */
+    public void setLevelOfDetailThreshold(float minArcLength) {
+        mLevelOfDetailThreshold = Math.max(0, minArcLength);
+        updateLevelOfDetail();
+        invalidateRenderCache();
+        invalidate();
+    }
+
+    /**
+     * The min length in pixels of the reached arc of a segment, see {@link #setLevelOfDetailThreshold(float)}
+     *
+     * @return
+     */
+    public float getLevelOfDetailThreshold() {
+        return mLevelOfDetailThreshold;
+    }
+
+    /**
+     * Indicates if the static parts of the bar are cached, see {@link #setStaticLayerCacheEnabled(boolean)}
+     *
+     * @return
+     */
+    public boolean isStaticLayerCacheEnabled() {
+        return mStaticLayerCacheEnabled;
+    }
+
+    /**
+     * Sets the {@link CircularBarStyle#getCounterClockwiseOutlineArcWidth()} and invalidates the view
+     *
+     * @param width The height in dp to set
+     */
+    public void setCounterClockwiseOutlineArcWidth(float width) {
+        setBarStyle(mBarStyle.withCounterClockwiseOutlineArcWidth(width));
+    }
+
+    /**
+     * Sets the {@link CircularBarStyle#getCounterClockwiseReachedArcWidth()} and invalidates the view
+     *
+     * @param width The height in dp to set
+     */
+    public void setCounterClockwiseReachedArcWidth(float width) {
+        setBarStyle(mBarStyle.withCounterClockwiseReachedArcWidth(width));
+    }
+
+    /**
+     * Sets the {@link CircularBarStyle#getCounterClockwiseOutlineArcColor()} and invalidates the view
+     *
+     * @param color The hex color to set
+     */
+    public void setCounterClockwiseOutlineArcColor(int color) {
+        setBarStyle(mBarStyle.withCounterClockwiseOutlineArcColor(color));
+    }
+
+    /**
+     * Sets the {@link CircularBarStyle#getCircleFillColor()} and invalidates the view
+     *
+     * @param color The hex color to set
+     */
+    public void setCircleFillColor(int color) {
+        cicleFillEnable(color != default_circle_fill_color || mCircleFillGradient != null);
+        setBarStyle(mBarStyle.withCircleFillColor(color));
+    }
+
+    /**
+     * Sets the colors and widths of the arcs and invalidates the view. The style is not copied,
+     * any number of bars can share the same one and its paints.
+     *
+     * @param barStyle The style to set
+     */
+    public void setBarStyle(CircularBarStyle barStyle) {
+        if (barStyle == null || barStyle == mBarStyle) {
+            return;
+        }
+        CircularBarStyle oldStyle = mBarStyle;
+        mBarStyle = barStyle;
+        initializePainters();
+        invalidateRenderCache();
+        if (oldStyle.getClockwiseReachedArcWidth() != barStyle.getClockwiseReachedArcWidth()
+                || oldStyle.getClockwiseOutlineArcWidth() != barStyle.getClockwiseOutlineArcWidth()) {
+            calculateDrawRectF();
+        }
+        invalidate();
+    }
+
+    /**
+     * Sets the {@link CircleFillMode} of the fill circle and invalidates the view
+     *
+     * @param circleFillMode The fill mode
+     */
+    public void setCircleFillMode(CircleFillMode circleFillMode) {
+        mCircleFillMode = circleFillMode.getValue();
+        invalidateStaticLayer();
+        invalidateRenderCache();
+        invalidate();
+    }
+
+    /**
+     * The {@link CircleFillMode} of the fill circle
+     *
+     * @return
+     */
+    public CircleFillMode getCircleFillMode() {
+        return CircleFillMode.getMode(mCircleFillMode);
+    }
+
+    /**
+     * Starts a batch of changes to the bar, applied at once by {@link Editor#apply()}
+     * with a single style change, geometry update and invalidate:
+     * <pre>
+     * bar.edit()
+     *         .setClockwiseReachedArcColor(color)
+     *         .setClockwiseReachedArcWidth(width)
+     *         .setMax(max)
+     *         .apply();
+     * </pre>
+     *
+     * @return An {@link Editor} holding the current values of the bar
+     */
+    public Editor edit() {
+        return new Editor();
+    }
+
+    /**
+     * The colors and widths of the arcs, see {@link #setBarStyle(CircularBarStyle)}
+     *
+     * @return
+     */
+    public CircularBarStyle getBarStyle() {
+        return mBarStyle;
+    }
+
+    /**
+     * Sets the {@link #mStartLineEnabled} and invalidates the view. {@link #mStartLineEnabled}
+     * defaults to true
+     *
+     * @param startLineEnabled True to display the line, false otherwise.
+     */
+    public void setStartLineEnabled(boolean startLineEnabled) {
+        this.mStartLineEnabled = startLineEnabled;
+        invalidateRenderCache();
+        invalidate();
+    }
+
+    /**
+     * Sets the {@link CircularBarStyle#getCounterClockwiseReachedArcColor()} and invalidates the view
+     *
+     * @param color The hex color to set
+     */
+    public void setCounterClockwiseArcColor(int color) {
+        setBarStyle(mBarStyle.withCounterClockwiseArcColor(color));
+    }
+
+    /**
+     * Sets the {@link CircularBarStyle#getClockwiseReachedArcColor()} and invalidates the view
+     *
+     * @param color The hex color to set
+     */
+    public void setClockwiseReachedArcColor(int color) {
+        setBarStyle(mBarStyle.withClockwiseReachedArcColor(color));
+    }
+
+    /**
+     * Sets the {@link CircularBarStyle#getClockwiseOutlineArcColor()} and invalidates the view
+     *
+     * @param color The hex color to set
+     */
+    public void setClockwiseOutlineArcColor(int color) {
+        setBarStyle(mBarStyle.withClockwiseOutlineArcColor(color));
+    }
+
+    /**
+     * Sets the {@link CircularBarStyle#getClockwiseReachedArcWidth()} and invalidates the view
+     *
+     * @param width The height in dp to set
+     */
+    public void setClockwiseReachedArcWidth(float width) {
+        setBarStyle(mBarStyle.withClockwiseReachedArcWidth(width));
+    }
+
+    /**
+     * Sets the {@link CircularBarStyle#getClockwiseOutlineArcWidth()} and invalidates the view
+     *
+     * @param width The height in dp to set
+     */
+    public void setClockwiseOutlineArcWidth(float width) {
+        setBarStyle(mBarStyle.withClockwiseOutlineArcWidth(width));
+    }
+
+    /**
+     * Adds a ring inside the rings of the bar, to show several progresses in one view. The rings share the
+     * layout, the draw pass and the animation clock of the bar, and are drawn as a single segment from 12 o'clock
+     * with the clockwise or counter clockwise colors and widths of their style. Their progress shares {@link #getMax()}.
+     * Each ring is laid out {@link #setRingGap(float)} inside the previous one; the label shrinks to fit in the innermost.
+     *
+     * @param style The colors and widths of the ring
+     * @return The index of the ring, 0 for the first ring inside the bar
+     */
+    public int addRing(CircularBarStyle style) {
+        if (style == null) {
+            throw new IllegalArgumentException("style must not be null");
+        }
+        mRings.add(new Ring(style));
+        calculateRingRectFs();
+        invalidateLabel();
+        invalidate();
+        return mRings.size() - 1;
+    }
+
+    /**
+     * Removes every ring added with {@link #addRing(CircularBarStyle)}
+     */
+    public void removeRings() {
+        stopRingAnimations(false);
+        mRings.clear();
+        calculateRingRectFs();
+        invalidateLabel();
+        invalidate();
+    }
+
+    /**
+     * @return The number of rings added with {@link #addRing(CircularBarStyle)}
+     */
+    public int getRingCount() {
+        return mRings.size();
+    }
+
+    /**
+     * Sets the colors and widths of a ring
+     *
+     * @param ring  The index of the ring
+     * @param style The style to set
+     */
+    public void setRingStyle(int ring, CircularBarStyle style) {
+        if (style == null) {
+            throw new IllegalArgumentException("style must not be null");
+        }
+        mRings.get(ring).mStyle = style;
+        calculateRingRectFs();
+        invalidateLabel();
+        invalidate();
+    }
+
+    /**
+     * The colors and widths of a ring, see {@link #setRingStyle(int, CircularBarStyle)}
+     *
+     * @param ring The index of the ring
+     * @return The style of the ring
+     */
+    public CircularBarStyle getRingStyle(int ring) {
+        return mRings.get(ring).mStyle;
+    }
+
+    /**
+     * Sets the progress of a ring, stopping its animation
+     *
+     * @param ring     The index of the ring
+     * @param progress The progress, negative for counter clockwise, clamped to the max
+     */
+    public void setRingProgress(int ring, float progress) {
+        Ring target = mRings.get(ring);
+        target.mTweenRunning = false;
+        target.mProgress = Math.max(-mMax, Math.min(progress, mMax));
+        invalidate();
+    }
+
+    /**
+     * The progress of a ring, moving while it animates
+     *
+     * @param ring The index of the ring
+     * @return The progress, negative for counter clockwise
+     */
+    public float getRingProgress(int ring) {
+        return mRings.get(ring).mProgress;
+    }
+
+    /**
+     * Animates the progress of a ring from its current value, with the easing of {@link #setProgressEasing(EasingTable)}.
+     * Every ring animates on the {@link CircularBarClock}: a frame advances all of them and invalidates the bar once.
+     *
+     * @param ring     The index of the ring
+     * @param target   The progress to animate to, clamped to the max
+     * @param duration The duration in milliseconds
+     */
+    public void animateRingProgressTo(int ring, float target, int duration) {
+        Ring animated = mRings.get(ring);
+        animated.mTweenStart = animated.mProgress;
+        animated.mTweenEnd = Math.max(-mMax, Math.min(target, mMax));
+        animated.mTweenStartTime = AnimationUtils.currentAnimationTimeMillis();
+        animated.mTweenDuration = duration;
+        animated.mTweenRunning = true;
+        mRingAnimationRunning = true;
+        CircularBarClock.getInstance().add(this);
+    }
+
+    /**
+     * Stops the animations of the rings
+     *
+     * @param settle True to set the rings to the end of their animation, false to leave them where they are
+     */
+    private void stopRingAnimations(boolean settle) {
+        for (int index = 0; index < mRings.size(); index++) {
+            Ring ring = mRings.get(index);
+            if (ring.mTweenRunning && settle) {
+                ring.mProgress = ring.mTweenEnd;
             }
+            ring.mTweenRunning = false;
         }
-        return set;
+        //The clock drops the bar on its next frame
+        mRingAnimationRunning = false;
     }
 
-
     /**
-     * Method to add a listener to call on animations
+     * Sets the space between two rings
      *
-     * @param listener The listener to call
+     * @param gap The gap in pixels
      */
-    public void addListener(Animator.AnimatorListener listener) {
-        mListeners.add(listener);
+    public void setRingGap(float gap) {
+        mRingGap = gap;
+        calculateRingRectFs();
+        invalidateLabel();
+        invalidate();
     }
 
     /**
-     * Removes the listener provided
+     * The space between two rings, see {@link #setRingGap(float)}
      *
-     * @param listener The listener to remove
-     * @return True if it was in the list and removed, false otherwise
+     * @return The gap in pixels
      */
-    public boolean removeListener(Animator.AnimatorListener listener) {
-        return mListeners.remove(listener);
+    public float getRingGap() {
+        return mRingGap;
     }
 
     /**
-     * Removes all animation listeners
+     * Draws the bar from a cache of rendered bars whenever it is not animating, eg. for bars in a scrolling list
+     * sharing the same cache. The label is still drawn on top. Bars with gradients, or hiding an arc, always
+     * draw their arcs.
+     *
+     * @param renderCache The shared cache, or null to always draw the arcs
      */
-    public void removeAllListeners() {
-        mListeners = new ArrayList<>();
+    public void setRenderCache(CircularBarRenderCache renderCache) {
+        mRenderCache = renderCache;
+        mRenderCacheBitmap = null;
+        mRenderCacheProgressTime = Long.MIN_VALUE;
+        mRenderCacheProgressInterval = Long.MAX_VALUE;
+        invalidate();
     }
 
     /**
-     * Get the suffix
+     * The cache of rendered bars, see {@link #setRenderCache(CircularBarRenderCache)}
      *
-     * @return
+     * @return The shared cache, null if not set
      */
-    public String getSuffix() {
-        return mSuffix;
+    public CircularBarRenderCache getRenderCache() {
+        return mRenderCache;
     }
 
     /**
-     * Get the prefix
+     * The reference counted hardware layer of the bar. Opt-in: add {@link HardwareLayerPromoter#getAnimatorListener()}
+     * to the alpha or transform animators of the bar, or acquire and release it around them, so that fades composite
+     * the layer instead of drawing the arcs again each frame. The layer is dropped when the bar is detached.
      *
-     * @return
+     * @return The layer promoter of the bar
      */
-    public String getPrefix() {
-        return mPrefix;
+    public HardwareLayerPromoter getHardwareLayerPromoter() {
+        if (mHardwareLayerPromoter == null) {
+            mHardwareLayerPromoter = new HardwareLayerPromoter(this);
+        }
+        return mHardwareLayerPromoter;
     }
 
     /**
-     * The boolean that indicates if we must draw the start line or not
+     * Draws the reached arc with a gradient instead of its color, usually a {@link CircularBarGradient#sweep(int...)}
+     * one going around the circle. The shader is only built again when the size of the bar changes.
      *
-     * @return
+     * @param gradient The gradient, or null to use the reached arc color again
      */
-    public boolean isStartLineEnabled() {
-        return mStartLineEnabled;
+    public void setReachedArcGradient(CircularBarGradient gradient) {
+        mReachedArcGradient = createGradientShaderCache(mReachedArcGradient, gradient);
+        initializePainters();
+        invalidate();
     }
 
     /**
-     * The float computed in {@link #getArcRect(float)} that is the diameter of the drawn circle.
+     * The gradient of the reached arc, see {@link #setReachedArcGradient(CircularBarGradient)}
      *
-     * @return
+     * @return The gradient, null if the reached arc color is used
      */
-    public float getDiameter() {
-        return mDiameter;
+    public CircularBarGradient getReachedArcGradient() {
+        return mReachedArcGradient == null ? null : mReachedArcGradient.getGradient();
     }
 
     /**
-     * The clockwise outline arc color
+     * Draws the outline arc with a gradient instead of its color
      *
-     * @return
+     * @param gradient The gradient, or null to use the outline arc color again
      */
-    public int getClockwiseOutlineArcColor() {
-        return mClockwiseOutlineArcColor;
+    public void setOutlineArcGradient(CircularBarGradient gradient) {
+        mOutlineArcGradient = createGradientShaderCache(mOutlineArcGradient, gradient);
+        initializePainters();
+        invalidate();
     }
 
     /**
-     * The clockwise reached arc color
+     * The gradient of the outline arc, see {@link #setOutlineArcGradient(CircularBarGradient)}
      *
-     * @return
+     * @return The gradient, null if the outline arc color is used
      */
-    public int getClockwiseReachedArcColor() {
-        return mClockwiseArcColor;
+    public CircularBarGradient getOutlineArcGradient() {
+        return mOutlineArcGradient == null ? null : mOutlineArcGradient.getGradient();
     }
 
     /**
-     * The current progress
+     * Fills the circle with a gradient instead of its color, usually a {@link CircularBarGradient#linear(int...)}
+     * or {@link CircularBarGradient#radial(int...)} one. Enables the fill.
      *
-     * @return
+     * @param gradient The gradient, or null to use the fill color again
      */
-    public float getProgress() {
-        return progress;
+    public void setCircleFillGradient(CircularBarGradient gradient) {
+        mCircleFillGradient = createGradientShaderCache(mCircleFillGradient, gradient);
+        cicleFillEnable(gradient != null || mBarStyle.getCircleFillColor() != default_circle_fill_color);
+        initializePainters();
+        invalidate();
     }
 
     /**
-     * The current reached state for each arc
+     * The gradient of the fill circle, see {@link #setCircleFillGradient(CircularBarGradient)}
      *
-     * @return
+     * @return The gradient, null if the fill color is used
      */
-    public List<Boolean> getCirclePieceFillList() {
-        return mCirclePieceFillList;
+    public CircularBarGradient getCircleFillGradient() {
+        return mCircleFillGradient == null ? null : mCircleFillGradient.getGradient();
     }
 
     /**
-     * Get the max of the reached arc, defaults to 100
+     * Rotates the gradients around the center of the circle. Cheap enough to animate: the shaders are
+     * kept and only their matrix changes, though it rebuilds the static layer cache if enabled.
      *
-     * @return
+     * @param degrees The rotation in degrees, clockwise
      */
-    public int getMax() {
-        return mMax;
+    public void setGradientRotation(float degrees) {
+        if (degrees == mGradientRotation) {
+            return;
+        }
+        mGradientRotation = degrees;
+        if (mReachedArcGradient != null || mOutlineArcGradient != null || mCircleFillGradient != null) {
+            initializePainters();
+            invalidate();
+        }
     }
 
     /**
-     * Get the height of the {@link #mClockwiseReachedArcWidth}
+     * The rotation of the gradients, see {@link #setGradientRotation(float)}
      *
-     * @return
+     * @return The rotation in degrees, clockwise
      */
-    public float getClockwiseReachedArcWidth() {
-        return mClockwiseReachedArcWidth;
+    public float getGradientRotation() {
+        return mGradientRotation;
     }
 
     /**
-     * Get the height of the {@link #mClockwiseOutlineArcWidth}
-     *
-     * @return
+     * @param cache    The current cache of a paint
+     * @param gradient The new gradient of the paint
+     * @return The current cache if the gradient did not change, else a new cache or null
      */
-    public float getClockwiseOutlineArcWidth() {
-        return mClockwiseOutlineArcWidth;
+    private static GradientShaderCache createGradientShaderCache(GradientShaderCache cache, CircularBarGradient gradient) {
+        if (gradient == null) {
+            return null;
+        }
+        if (cache != null && cache.getGradient().equals(gradient)) {
+            return cache;
+        }
+        return new GradientShaderCache(gradient);
     }
 
     /**
-     * The counter clockwise outline arc color
+     * Sets the {@link #mMax} and invalidates the view
      *
-     * @return
+     * @param max The height in dp to set
      */
-    public int getCounterClockwiseReachedArcColor() {
-        return mCounterClockwiseArcColor;
+    public void setMax(int max) {
+        if (max > 0) {
+            this.mMax = max;
+            invalidateRenderCache();
+            invalidate();
+        }
     }
 
     /**
-     * The counter clockwise outline arc color
+     * Sets the {@link #mSuffix}
      *
-     * @return
+     * @param suffix The suffix
      */
-    public int getCounterClockwiseOutlineArcColor() {
-        return mCounterClockwiseOutlineArcColor;
+    public void setSuffix(String suffix) {
+        if (suffix == null) {
+            mSuffix = "";
+        } else {
+            mSuffix = suffix;
+        }
+        invalidateLabel();
+        if (mLabelEnabled) {
+            invalidate();
+        }
     }
 
     /**
-     * The color to fill the circle center
+     * Sets the {@link #mPrefix}
      *
-     * @return
+     * @param prefix The prefix
      */
-    public int getCircleFillColor() {
-        return mCircleFillColor;
+    public void setPrefix(String prefix) {
+        if (prefix == null)
+            mPrefix = "";
+        else {
+            mPrefix = prefix;
+        }
+        invalidateLabel();
+        if (mLabelEnabled) {
+            invalidate();
+        }
     }
 
     /**
-     * Get the height of the {@link #mCounterClockwiseReachedArcWidth}
+     * Enables the drawing of a label in the center of the circle: the {@link #mPrefix},
+     * the rounded progress then the {@link #mSuffix}, eg. "42%". Disabled by default.
      *
-     * @return
-     */
-    public float getCounterClockwiseReachedArcWidth() {
-        return mCounterClockwiseReachedArcWidth;
+     * @param enabled True to draw the label, false otherwise
+     */
+    public void setLabelEnabled(boolean enabled) {
+        mLabelEnabled = enabled;
+        if (enabled && mLabelPaint == null) {
+            mLabelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mLabelPaint.setTextAlign(Paint.Align.CENTER);
+            mLabelPaint.setColor(mLabelColor);
+        }
+        invalidateLabel();
+        invalidate();
     }
 
     /**
-     * Get the height of the {@link #mCounterClockwiseOutlineArcWidth}
+     * Indicates if the label is drawn, see {@link #setLabelEnabled(boolean)}
      *
      * @return
      */
-    public float getCounterClockwiseOutlineArcWidth() {
-        return mCounterClockwiseOutlineArcWidth;
+    public boolean isLabelEnabled() {
+        return mLabelEnabled;
     }
 
     /**
-     * Sets whether the circle drawn inside and filled.
+     * Sets the text size of the label, it is shrunk if the label does not fit in the circle
      *
-     * @return
+     * @param textSize The text size in pixels
      */
-    public boolean isCircleFillEnabled() {
-        return mCircleFillEnabled;
+    public void setLabelTextSize(float textSize) {
+        mLabelTextSize = textSize;
+        invalidateLabel();
+        invalidate();
     }
 
     /**
-     * Sets the enabled state of the circle fill
+     * The text size of the label, before it is shrunk to fit in the circle
      *
-     * @param enable
+     * @return
      */
-    public void cicleFillEnable(boolean enable) {
-        mCircleFillEnabled = enable;
+    public float getLabelTextSize() {
+        return mLabelTextSize;
     }
 
     /**
-     * Sets the {@link #mCounterClockwiseOutlineArcWidth} and invalidates the view
+     * Sets the color of the label
      *
-     * @param width The height in dp to set
+     * @param color The hex color to set
      */
-    public void setCounterClockwiseOutlineArcWidth(float width) {
-        this.mCounterClockwiseOutlineArcWidth = width;
+    public void setLabelColor(int color) {
+        mLabelColor = color;
+        if (mLabelPaint != null) {
+            mLabelPaint.setColor(color);
+        }
         invalidate();
     }
 
     /**
-     * Sets the {@link #mCounterClockwiseReachedArcWidth} and invalidates the view
+     * The color of the label
      *
-     * @param width The height in dp to set
+     * @return
      */
-    public void setCounterClockwiseReachedArcWidth(float width) {
-        this.mCounterClockwiseReachedArcWidth = width;
-        invalidate();
+    public int getLabelColor() {
+        return mLabelColor;
     }
 
     /**
-     * Sets the {@link #mCounterClockwiseOutlineArcColor} and invalidates the view
+     * Sets the formatter writing the progress of the label, to show decimals, round differently or
+     * use the digits of a locale. Call it again after changing the formatter so that the label is laid out again.
      *
-     * @param color The hex color to set
+     * @param formatter The formatter
      */
-    public void setCounterClockwiseOutlineArcColor(int color) {
-        this.mCounterClockwiseOutlineArcColor = color;
-        initializePainters();
+    public void setLabelFormatter(ProgressFormatter formatter) {
+        mLabelFormatter = formatter;
+        invalidateLabel();
         invalidate();
     }
 
     /**
-     * Sets the {@link #mCircleFillColor} and invalidates the view
+     * The formatter writing the progress of the label, integers rounded half up by default
      *
-     * @param color The hex color to set
+     * @return
      */
-    public void setCircleFillColor(int color) {
-        this.mCircleFillColor = color;
-        cicleFillEnable(mCircleFillColor != default_circle_fill_color);
-        initializePainters();
-        invalidate();
+    public ProgressFormatter getLabelFormatter() {
+        return mLabelFormatter;
     }
 
     /**
-     * Sets the {@link #mStartLineEnabled} and invalidates the view. {@link #mStartLineEnabled}
-     * defaults to true
+     * The width of the label when it was last measured, 0 if it was never drawn
      *
-     * @param startLineEnabled True to display the line, false otherwise.
+     * @return
      */
-    public void setStartLineEnabled(boolean startLineEnabled) {
-        this.mStartLineEnabled = startLineEnabled;
-        invalidate();
+    public float getLabelWidth() {
+        return mLabelWidth;
     }
 
     /**
-     * Sets the {@link #mCounterClockwiseArcColor} and invalidates the view
+     * Sets the equal parts the circle arc is divided into and invalidates the view
      *
-     * @param color The hex color to set
+     * @param circlePieceFillList The filled state of each part
      */
-    public void setCounterClockwiseArcColor(int color) {
-        this.mCounterClockwiseArcColor = color;
-        initializePainters();
-        invalidate();
+    public void setCirclePieceFill(List<Boolean> circlePieceFillList) {
+        mArcSegments.setFilled(circlePieceFillList);
+        onCirclePieceFillChanged();
     }
 
     /**
-     * Sets the {@link #mClockwiseArcColor} and invalidates the view
+     * Sets the equal parts the circle arc is divided into and invalidates the view
      *
-     * @param color The hex color to set
+     * @param circlePieceFill The filled state of each part
      */
-    public void setClockwiseReachedArcColor(int color) {
-        this.mClockwiseArcColor = color;
-        initializePainters();
-        invalidate();
+    public void setCirclePieceFill(boolean[] circlePieceFill) {
+        mArcSegments.setFilled(circlePieceFill);
+        onCirclePieceFillChanged();
     }
 
     /**
-     * Sets the {@link #mClockwiseOutlineArcColor} and invalidates the view
+     * Sets the equal parts the circle arc is divided into and invalidates the view
      *
-     * @param color The hex color to set
+     * @param circlePieceFill The filled state of each part, bit i set if part i is filled
+     * @param count           The number of parts
      */
-    public void setClockwiseOutlineArcColor(int color) {
-        this.mClockwiseOutlineArcColor = color;
-        initializePainters();
-        invalidate();
+    public void setCirclePieceFill(BitSet circlePieceFill, int count) {
+        mArcSegments.setFilled(circlePieceFill, count);
+        onCirclePieceFillChanged();
     }
 
     /**
-     * Sets the {@link #mClockwiseReachedArcWidth} and invalidates the view
+     * Sets the equal parts the circle arc is divided into and invalidates the view
      *
-     * @param width The height in dp to set
+     * @param count           The number of parts, at most 64
+     * @param circlePieceMask The filled state of each part, bit i set if part i is filled
      */
-    public void setClockwiseReachedArcWidth(float width) {
-        mClockwiseReachedArcWidth = width;
-        invalidate();
+    public void setCirclePieceFill(int count, long circlePieceMask) {
+        mArcSegments.setFilled(count, circlePieceMask);
+        onCirclePieceFillChanged();
     }
 
     /**
-     * Sets the {@link #mClockwiseOutlineArcWidth} and invalidates the view
-     *
-     * @param width The height in dp to set
+     * Recomputes the angles of the parts after {@link #mArcSegments} changed
      */
-    public void setClockwiseOutlineArcWidth(float width) {
-        mClockwiseOutlineArcWidth = width;
+    private void onCirclePieceFillChanged() {
+        updateLevelOfDetail();
+        invalidateStaticLayer();
+        invalidateRenderCache();
+        updateAngles();
         invalidate();
     }
 
     /**
-     * Sets the {@link #mMax} and invalidates the view
-     *
-     * @param max The height in dp to set
+     * @param newProgress
      */
-    public void setMax(int max) {
-        if (max > 0) {
-            this.mMax = max;
-            invalidate();
+    public void setProgress(float newProgress) {
+        long start = mMetrics != null ? System.nanoTime() : 0;
+        updateProgress(newProgress);
+        updateAngles();
+        invalidate();
+        if (mMetrics != null) {
+            mMetrics.onSetProgress(System.nanoTime() - start);
         }
     }
 
     /**
-     * Sets the {@link #mSuffix}
+     * Sets the progress within the bounds of {@link #mMax}, without updating the angles
      *
-     * @param suffix The suffix
+     * @param newProgress
      */
-    public void setSuffix(String suffix) {
-        if (suffix == null) {
-            mSuffix = "";
+    private void updateProgress(float newProgress) {
+        float oldProgress = progress;
+        if (mArcSegments.getCount() > 0) {
+            progress = ArcSegments.enforceBounds(progress, newProgress, mMax);
         } else {
-            mSuffix = suffix;
+            mArcSegments.setFilled(1, 0L);
+            updateLevelOfDetail();
+            progress = 0;
+            invalidateStaticLayer();
+            invalidateRenderCache();
         }
-    }
-
-    /**
-     * Sets the {@link #mPrefix}
-     *
-     * @param prefix The prefix
-     */
-    public void setPrefix(String prefix) {
-        if (prefix == null)
-            mPrefix = "";
-        else {
-            mPrefix = prefix;
+        if (progress != oldProgress) {
+            invalidateRenderCache();
+            if (mRenderCache != null) {
+                long now = AnimationUtils.currentAnimationTimeMillis();
+                mRenderCacheProgressInterval = mRenderCacheProgressTime == Long.MIN_VALUE
+                        ? Long.MAX_VALUE : now - mRenderCacheProgressTime;
+                mRenderCacheProgressTime = now;
+            }
         }
     }
 
     /**
-     * @param newProgress
+     * Update the angles of the arcs and the paints matching the direction of the progress.
+     * Constant time, the start angles of the segments are only computed when their number changes.
      */
-    public void setProgress(float newProgress) {
-        if (mCirclePieceFillList != null && mCirclePieceFillList.size() > 0) {
-            if (mProgressSweepList == null || mProgressSweepList.size() != mCirclePieceFillList.size()) {
-                mProgressSweepList = new ArrayList<>();
-                for (int ps = 0; ps < mCirclePieceFillList.size(); ps++) {
-                    mProgressSweepList.add(new ProgressSweep(newProgress, ps));
-                }
-            } else {
-                mProgressSweepList.get(0).enforceBounds(newProgress);
-                for (int ps = 0; ps < mCirclePieceFillList.size(); ps++) {
-                    if (mProgressSweepList.get(ps) == null) {
-                        mProgressSweepList.set(ps, new ProgressSweep(newProgress, ps));
-                    }
-                    mProgressSweepList.get(ps).updateAngles(ps);
-                }
-            }
+    private void updateAngles() {
+        if (mArcSegments.updateAngles(progress, mMax)) {
+            mArcRunsDirty = true;
+        }
+        if (progress >= 0) {
+            mReachedArcPaint = mBarStyle.getClockwiseReachedArcPaint();
+            mOutlineArcPaint = mBarStyle.getClockwiseOutlineArcPaint();
         } else {
-            mCirclePieceFillList = new ArrayList<>();
-            mProgressSweepList = new ArrayList<>();
-            mCirclePieceFillList.add(false);
-            mProgressSweepList.add(new ProgressSweep(0, 0));
+            mReachedArcPaint = mBarStyle.getCounterClockwiseReachedArcPaint();
+            mOutlineArcPaint = mBarStyle.getCounterClockwiseOutlineArcPaint();
         }
-        invalidate();
+        updateGradientPaints();
     }
 
     /**
@@ -1029,99 +2588,214 @@ public class CircularBar extends View implements Animator.AnimatorListener {
     }
 
     /**
-     * Private class for calculating and holding the sweep angles of the
-     * arcs we are drawing
-     */
-    protected class ProgressSweep {
-        /*
-         * Possible starting positions at 12, 3, 6, and 9 o'clock positions
-         *     12
-         * 9        3
-         *     6
-         */
-        /**
-         * 12 o'clock
-         */
-        public static final float START_12 = 270f;
-        /**
-         * 3 o'clock
-         */
-        public static final float START_3 = 0f;
-        /**
-         * 6 o'clock
-         */
-        public static final float START_6 = 90f;
+     * Collects changes to the bar, see {@link #edit()}. Nothing is changed on the bar
+     * until {@link #apply()} is called.
+     */
+    public class Editor {
+        private int mClockwiseArcColor = mBarStyle.getClockwiseReachedArcColor();
+        private int mClockwiseOutlineArcColor = mBarStyle.getClockwiseOutlineArcColor();
+        private int mCounterClockwiseArcColor = mBarStyle.getCounterClockwiseReachedArcColor();
+        private int mCounterClockwiseOutlineArcColor = mBarStyle.getCounterClockwiseOutlineArcColor();
+        private int mCircleFillColor = mBarStyle.getCircleFillColor();
+        private float mClockwiseReachedArcWidth = mBarStyle.getClockwiseReachedArcWidth();
+        private float mClockwiseOutlineArcWidth = mBarStyle.getClockwiseOutlineArcWidth();
+        private float mCounterClockwiseReachedArcWidth = mBarStyle.getCounterClockwiseReachedArcWidth();
+        private float mCounterClockwiseOutlineArcWidth = mBarStyle.getCounterClockwiseOutlineArcWidth();
+        private boolean mCircleFillEnabled = CircularBar.this.mCircleFillEnabled;
+        private int mCircleFillMode = CircularBar.this.mCircleFillMode;
+        private int mMax = CircularBar.this.mMax;
+        private String mPrefix = CircularBar.this.mPrefix;
+        private String mSuffix = CircularBar.this.mSuffix;
+        private boolean mStartLineEnabled = CircularBar.this.mStartLineEnabled;
+
         /**
-         * 9 o'clock
+         * The filled state of the parts, null if unchanged
          */
-        public static final float START_9 = 180f;
+        private BitSet mCirclePieceFill;
+        private int mCirclePieceCount;
 
         /**
-         * Starting angle position of the reached arc
+         * The progress, NaN if unchanged
          */
-        public float reachedStart = START_12;
+        private float mProgress = Float.NaN;
+
+        private Editor() {
+        }
+
+        public Editor setClockwiseReachedArcColor(int color) {
+            mClockwiseArcColor = color;
+            return this;
+        }
+
+        public Editor setClockwiseOutlineArcColor(int color) {
+            mClockwiseOutlineArcColor = color;
+            return this;
+        }
+
+        public Editor setCounterClockwiseArcColor(int color) {
+            mCounterClockwiseArcColor = color;
+            return this;
+        }
+
+        public Editor setCounterClockwiseOutlineArcColor(int color) {
+            mCounterClockwiseOutlineArcColor = color;
+            return this;
+        }
 
         /**
-         * The sweep angle of the reached arc
+         * Sets the color of the fill circle, enabling it unless the color is the transparent default
+         * and no {@link CircularBar#setCircleFillGradient(CircularBarGradient)} is set,
+         * as {@link CircularBar#setCircleFillColor(int)} does
          */
-        public float reachedSweep = 0f;
+        public Editor setCircleFillColor(int color) {
+            mCircleFillColor = color;
+            mCircleFillEnabled = color != default_circle_fill_color || mCircleFillGradient != null;
+            return this;
+        }
+
+        public Editor setCircleFillEnabled(boolean enabled) {
+            mCircleFillEnabled = enabled;
+            return this;
+        }
+
+        public Editor setCircleFillMode(CircleFillMode circleFillMode) {
+            mCircleFillMode = circleFillMode.getValue();
+            return this;
+        }
+
+        public Editor setClockwiseReachedArcWidth(float width) {
+            mClockwiseReachedArcWidth = width;
+            return this;
+        }
+
+        public Editor setClockwiseOutlineArcWidth(float width) {
+            mClockwiseOutlineArcWidth = width;
+            return this;
+        }
+
+        public Editor setCounterClockwiseReachedArcWidth(float width) {
+            mCounterClockwiseReachedArcWidth = width;
+            return this;
+        }
+
+        public Editor setCounterClockwiseOutlineArcWidth(float width) {
+            mCounterClockwiseOutlineArcWidth = width;
+            return this;
+        }
+
+        public Editor setStartLineEnabled(boolean startLineEnabled) {
+            mStartLineEnabled = startLineEnabled;
+            return this;
+        }
 
         /**
-         * Starting angle position of the outline arc
+         * Ignored unless positive, as in {@link CircularBar#setMax(int)}
          */
-        public float outlineStart = reachedStart;
+        public Editor setMax(int max) {
+            if (max > 0) {
+                mMax = max;
+            }
+            return this;
+        }
+
+        public Editor setPrefix(String prefix) {
+            mPrefix = prefix == null ? "" : prefix;
+            return this;
+        }
+
+        public Editor setSuffix(String suffix) {
+            mSuffix = suffix == null ? "" : suffix;
+            return this;
+        }
 
         /**
-         * The sweep angle of the outline arc
+         * Sets the progress, bounded by the max once every other change is applied
          */
-        public float outlineSweep = 360f;
+        public Editor setProgress(float progress) {
+            mProgress = progress;
+            return this;
+        }
+
+        public Editor setCirclePieceFill(List<Boolean> circlePieceFillList) {
+            mCirclePieceFill = new BitSet();
+            mCirclePieceCount = circlePieceFillList == null ? 0 : circlePieceFillList.size();
+            for (int index = 0; index < mCirclePieceCount; index++) {
+                Boolean filled = circlePieceFillList.get(index);
+                mCirclePieceFill.set(index, filled != null && filled);
+            }
+            return this;
+        }
+
+        public Editor setCirclePieceFill(boolean[] circlePieceFill) {
+            mCirclePieceFill = new BitSet();
+            mCirclePieceCount = circlePieceFill.length;
+            for (int index = 0; index < mCirclePieceCount; index++) {
+                mCirclePieceFill.set(index, circlePieceFill[index]);
+            }
+            return this;
+        }
 
-        public ProgressSweep(float progress, int i) {
-            enforceBounds(progress);
-            updateAngles(i);
+        public Editor setCirclePieceFill(BitSet circlePieceFill, int count) {
+            mCirclePieceFill = (BitSet) circlePieceFill.clone();
+            mCirclePieceCount = count;
+            return this;
         }
 
         /**
-         * Enforce the progress boundary at the max value allowed
+         * Validated right away, as in {@link CircularBar#setCirclePieceFill(int, long)}
+         *
+         * @param count           The number of parts, at most 64
+         * @param circlePieceMask The filled state of each part, bit i set if part i is filled
          */
-        public void enforceBounds(float newProgress) {
-            if (Math.abs(newProgress) == Math.abs(mMax)) {
-                return;
+        public Editor setCirclePieceFill(int count, long circlePieceMask) {
+            if (count < 0) {
+                throw new IllegalArgumentException("The number of segments can not be negative, got " + count);
+            }
+            if (count > Long.SIZE) {
+                throw new IllegalArgumentException("A mask holds at most " + Long.SIZE + " segments, got " + count);
             }
-            progress = newProgress % mMax;
+            mCirclePieceFill = BitSet.valueOf(new long[]{circlePieceMask});
+            mCirclePieceCount = count;
+            return this;
         }
 
         /**
-         * Update the angles of the arcs
+         * Applies every change to the bar: the style is replaced once, the geometry is recomputed
+         * only if a clockwise width changed, and the view is invalidated once
          */
-        public void updateAngles(int piecePosition) {
-            if (progress >= 0) {
-                int numPiece = mCirclePieceFillList.size();
-                if (mCirclePieceFillList.get(piecePosition)) {
-                    reachedStart = (START_12 + ((360f / numPiece) * piecePosition)) % 360f;
-                    reachedSweep = (progress / mMax * 360f) / numPiece;
-                    outlineStart = (reachedStart + reachedSweep) % 360f;
-                    outlineSweep = (360f / numPiece) - reachedSweep;
-                } else {
-                    reachedStart = (START_12 + ((360f / numPiece) * piecePosition)) % 360f;
-                    reachedSweep = 0;
-                    outlineStart = (reachedStart + reachedSweep) % 360f;
-                    outlineSweep = 360f / numPiece;
-                }
-                //paints
-                mReachedArcPaint = mClockwiseReachedArcPaint;
-                mOutlineArcPaint = mClockwiseOutlineArcPaint;
-            } else {
-                reachedSweep = Math.abs(progress / mMax * 360f);
-                reachedStart = START_12 - reachedSweep;
-                outlineStart = START_12;
-                outlineSweep = 360f - reachedSweep;
-
-                //paints
-                mReachedArcPaint = mCounterClockwiseReachedArcPaint;
-                mOutlineArcPaint = mCounterClockwiseOutlineArcPaint;
+        public void apply() {
+            CircularBarStyle oldStyle = mBarStyle;
+            CircularBarStyle style = new CircularBarStyle(mClockwiseArcColor, mClockwiseOutlineArcColor,
+                    mCounterClockwiseArcColor, mCounterClockwiseOutlineArcColor, mCircleFillColor,
+                    mClockwiseReachedArcWidth, mClockwiseOutlineArcWidth,
+                    mCounterClockwiseReachedArcWidth, mCounterClockwiseOutlineArcWidth);
+            if (!style.equals(oldStyle)) {
+                mBarStyle = style;
+            }
+            CircularBar.this.mCircleFillEnabled = mCircleFillEnabled;
+            CircularBar.this.mCircleFillMode = mCircleFillMode;
+            CircularBar.this.mMax = mMax;
+            CircularBar.this.mPrefix = mPrefix;
+            CircularBar.this.mSuffix = mSuffix;
+            invalidateLabel();
+            CircularBar.this.mStartLineEnabled = mStartLineEnabled;
+            if (mCirclePieceFill != null) {
+                mArcSegments.setFilled(mCirclePieceFill, mCirclePieceCount);
+            }
+            if (!Float.isNaN(mProgress)) {
+                updateProgress(mProgress);
+            }
+
+            initializePainters();
+            if (oldStyle.getClockwiseReachedArcWidth() != mClockwiseReachedArcWidth
+                    || oldStyle.getClockwiseOutlineArcWidth() != mClockwiseOutlineArcWidth) {
+                calculateDrawRectF();
+            } else if (mCirclePieceFill != null) {
+                updateLevelOfDetail();
             }
+            updateAngles();
+            invalidateRenderCache();
+            invalidate();
         }
     }
 }
-
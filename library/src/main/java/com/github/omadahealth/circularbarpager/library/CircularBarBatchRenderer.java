@@ -0,0 +1,389 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders lists of {@link CircularBarState}s of the same {@link CircularBarStyle} and size, eg. one thumbnail
+ * per day of a history screen, on a fixed pool of background threads. Each thread has its own
+ * {@link CircularBarRenderer} and paints, copied from the paints of the style when the batch renderer is created.
+ * <p>
+ * Bitmaps come from a bounded pool of bitmaps of the batch size: {@link #render(List, Callback)} hands them to
+ * the callback, which gives them back with {@link #releaseBitmap(Bitmap)}, and {@link #compress(List, List, Callback)}
+ * streams them as PNG into the given outputs and reuses them right away. Rendering waits for a free bitmap when
+ * every bitmap of the pool is in use, so memory stays flat whatever the number of states.
+ * <p>
+ * Results are delivered in the order of the states, on the looper given to the constructor.
+ */
+public class CircularBarBatchRenderer {
+
+    /**
+     * Receives the results of a batch, in the order of the states. No-op by default.
+     */
+    public static abstract class Callback {
+
+        /**
+         * A state of {@link #render(List, Callback)} was rendered
+         *
+         * @param index  The index of the state
+         * @param bitmap The bitmap holding it, give it back with {@link #releaseBitmap(Bitmap)}
+         */
+        public void onRendered(int index, Bitmap bitmap) {
+        }
+
+        /**
+         * A state of {@link #compress(List, List, Callback)} was written to its output
+         *
+         * @param index The index of the state
+         */
+        public void onCompressed(int index) {
+        }
+
+        /**
+         * A state could not be rendered or written
+         *
+         * @param index The index of the state
+         * @param error The error
+         */
+        public void onFailed(int index, Exception error) {
+        }
+
+        /**
+         * Every state of the batch was delivered
+         */
+        public void onComplete() {
+        }
+    }
+
+    private final int mWidth;
+    private final int mHeight;
+
+    private final ExecutorService mExecutor;
+    private final Handler mCallbackHandler;
+
+    /**
+     * The free bitmaps of the pool
+     */
+    private final BlockingQueue<Bitmap> mFreeBitmaps;
+
+    /**
+     * The max number of bitmaps of the pool
+     */
+    private final int mPoolSize;
+
+    /**
+     * The number of bitmaps created so far
+     */
+    private final AtomicInteger mCreatedBitmaps = new AtomicInteger();
+
+    /**
+     * Holds the copies of the paints of the style, made on the thread creating the batch renderer.
+     * Never drawn with, only copied by the workers.
+     */
+    private final CircularBarRenderer mTemplateRenderer;
+
+    /**
+     * The renderer of each worker thread
+     */
+    private final ThreadLocal<CircularBarRenderer> mRenderers = new ThreadLocal<CircularBarRenderer>() {
+        @Override
+        protected CircularBarRenderer initialValue() {
+            return new CircularBarRenderer(mTemplateRenderer);
+        }
+    };
+
+    /**
+     * Uses one thread per core, two bitmaps per thread and delivers results on the main thread
+     *
+     * @param style  The style of the bars
+     * @param width  The width of the bitmaps
+     * @param height The height of the bitmaps
+     */
+    public CircularBarBatchRenderer(CircularBarStyle style, int width, int height) {
+        this(style, width, height, Runtime.getRuntime().availableProcessors(), 0, Looper.getMainLooper());
+    }
+
+    /**
+     * @param style          The style of the bars
+     * @param width          The width of the bitmaps
+     * @param height         The height of the bitmaps
+     * @param threadCount    The number of worker threads
+     * @param poolSize       The max number of bitmaps, at least the number of threads, 0 for two per thread
+     * @param callbackLooper The looper the callbacks are called on
+     */
+    public CircularBarBatchRenderer(CircularBarStyle style, int width, int height, int threadCount, int poolSize,
+                                    Looper callbackLooper) {
+        if (style == null || callbackLooper == null) {
+            throw new IllegalArgumentException("style and callbackLooper must not be null");
+        }
+        if (width <= 0 || height <= 0 || threadCount <= 0) {
+            throw new IllegalArgumentException("width, height and threadCount must be positive");
+        }
+        mTemplateRenderer = new CircularBarRenderer(style);
+        mWidth = width;
+        mHeight = height;
+        mPoolSize = poolSize <= 0 ? threadCount * 2 : Math.max(poolSize, threadCount);
+        mFreeBitmaps = new ArrayBlockingQueue<>(mPoolSize);
+        mCallbackHandler = new Handler(callbackLooper);
+        mExecutor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }
+                }, "CircularBarBatchRenderer #" + mCount.incrementAndGet());
+            }
+        });
+    }
+
+    /**
+     * Renders each state into a bitmap of the pool, handed to {@link Callback#onRendered(int, Bitmap)}
+     *
+     * @param states   The states to render
+     * @param callback Receives the bitmaps in the order of the states
+     */
+    public void render(List<CircularBarState> states, Callback callback) {
+        submit(states, null, callback);
+    }
+
+    /**
+     * Renders each state and writes it as a PNG into the output at the same index, then reuses its bitmap.
+     * The outputs are not closed. {@link Callback#onCompressed(int)} is called once an output is written.
+     *
+     * @param states   The states to render
+     * @param outputs  One output per state
+     * @param callback Receives the results in the order of the states
+     */
+    public void compress(List<CircularBarState> states, List<? extends OutputStream> outputs, Callback callback) {
+        if (outputs == null || outputs.size() != states.size()) {
+            throw new IllegalArgumentException("compress needs one output per state");
+        }
+        submit(states, outputs, callback);
+    }
+
+    private void submit(List<CircularBarState> states, List<? extends OutputStream> outputs, Callback callback) {
+        //Copied, the list can change once this returns
+        List<CircularBarState> batchStates = new ArrayList<>(states);
+        InOrderDelivery delivery = new InOrderDelivery(batchStates.size(), callback == null ? new Callback() {
+        } : callback);
+        for (int index = 0; index < batchStates.size(); index++) {
+            mExecutor.execute(new RenderTask(index, batchStates.get(index),
+                    outputs == null ? null : outputs.get(index), delivery));
+        }
+    }
+
+    /**
+     * Gives a bitmap of {@link Callback#onRendered(int, Bitmap)} back to the pool
+     *
+     * @param bitmap The bitmap, not used anymore by the caller
+     */
+    public void releaseBitmap(Bitmap bitmap) {
+        if (bitmap != null && bitmap.getWidth() == mWidth && bitmap.getHeight() == mHeight && !bitmap.isRecycled()) {
+            mFreeBitmaps.offer(bitmap);
+        }
+    }
+
+    /**
+     * Stops the worker threads once the submitted batches are rendered, and drops the pool
+     */
+    public void shutdown() {
+        mExecutor.shutdown();
+        mFreeBitmaps.clear();
+    }
+
+    /**
+     * @return A free bitmap of the pool, created if the pool is not full yet, else waits for one
+     */
+    private Bitmap acquireBitmap() throws InterruptedException {
+        Bitmap bitmap = mFreeBitmaps.poll();
+        if (bitmap != null) {
+            return bitmap;
+        }
+        if (mCreatedBitmaps.incrementAndGet() <= mPoolSize) {
+            return Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+        }
+        mCreatedBitmaps.decrementAndGet();
+        return mFreeBitmaps.take();
+    }
+
+    /**
+     * Renders one state on a worker thread
+     */
+    private class RenderTask implements Runnable {
+
+        private final int mIndex;
+        private final CircularBarState mState;
+        private final OutputStream mOutput;
+        private final InOrderDelivery mDelivery;
+
+        RenderTask(int index, CircularBarState state, OutputStream output, InOrderDelivery delivery) {
+            mIndex = index;
+            mState = state;
+            mOutput = output;
+            mDelivery = delivery;
+        }
+
+        @Override
+        public void run() {
+            Bitmap bitmap = null;
+            try {
+                bitmap = mDelivery.acquireBitmap(mIndex);
+                mRenderers.get().render(mState, bitmap);
+                if (mOutput == null) {
+                    mDelivery.deliver(mIndex, bitmap);
+                    bitmap = null;
+                } else {
+                    if (!bitmap.compress(Bitmap.CompressFormat.PNG, 100, mOutput)) {
+                        throw new IOException("Could not write the PNG of state " + mIndex);
+                    }
+                    mOutput.flush();
+                    mDelivery.deliver(mIndex, null);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                mDelivery.deliver(mIndex, e);
+            } catch (IOException | RuntimeException e) {
+                mDelivery.deliver(mIndex, e);
+            } finally {
+                releaseBitmap(bitmap);
+            }
+        }
+    }
+
+    /**
+     * Holds the results finished ahead of the next expected one, and posts them to the callback
+     * in the order of the states
+     */
+    private class InOrderDelivery {
+
+        /**
+         * Marks a compressed state in {@link #mResults}
+         */
+        private final Object mCompressed = new Object();
+
+        private final Object[] mResults;
+        private final Callback mCallback;
+        private int mNext;
+
+        /**
+         * The index of the next state allowed to take a bitmap from the pool
+         */
+        private int mNextAcquire;
+        private final Object mAcquireLock = new Object();
+
+        InOrderDelivery(int count, Callback callback) {
+            mResults = new Object[count];
+            mCallback = callback;
+            if (count == 0) {
+                postComplete();
+            }
+        }
+
+        /**
+         * Takes a bitmap from the pool, in the order of the states. Results held ahead of the next expected one
+         * are then always waiting for a state that already has its bitmap, so the pool can not run dry waiting
+         * for a state that can not start.
+         *
+         * @param index The index of the state
+         * @return A bitmap of the pool
+         */
+        Bitmap acquireBitmap(int index) throws InterruptedException {
+            synchronized (mAcquireLock) {
+                while (mNextAcquire != index) {
+                    mAcquireLock.wait();
+                }
+                try {
+                    return CircularBarBatchRenderer.this.acquireBitmap();
+                } finally {
+                    mNextAcquire++;
+                    mAcquireLock.notifyAll();
+                }
+            }
+        }
+
+        /**
+         * @param index  The index of the state
+         * @param result Its bitmap, an exception, or null once compressed
+         */
+        synchronized void deliver(int index, Object result) {
+            mResults[index] = result == null ? mCompressed : result;
+            //Posted under the lock, so that the handler receives them in order
+            while (mNext < mResults.length && mResults[mNext] != null) {
+                post(mNext, mResults[mNext]);
+                mResults[mNext] = null;
+                mNext++;
+            }
+            if (mNext == mResults.length) {
+                postComplete();
+            }
+        }
+
+        private void post(final int index, final Object result) {
+            mCallbackHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (result instanceof Bitmap) {
+                        mCallback.onRendered(index, (Bitmap) result);
+                    } else if (result instanceof Exception) {
+                        mCallback.onFailed(index, (Exception) result);
+                    } else {
+                        mCallback.onCompressed(index);
+                    }
+                }
+            });
+        }
+
+        private void postComplete() {
+            mCallbackHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    mCallback.onComplete();
+                }
+            });
+        }
+    }
+}
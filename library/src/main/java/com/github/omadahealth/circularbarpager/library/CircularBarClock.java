@@ -0,0 +1,182 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * A frame clock shared by every {@link CircularBar} that enabled it, see
+ * {@link CircularBar#setSharedClockEnabled(boolean)}. A single frame callback advances the
+ * progress of all the animating bars in one loop, so the scheduling cost of a frame does not
+ * grow with the number of bars. The callback is only registered while a bar is animating.
+ * <p>
+ * Uses the {@link Choreographer} from API 16, and a {@link Handler} ticking at about 60 fps below.
+ * Must only be used from the main thread.
+ */
+public final class CircularBarClock {
+
+    /**
+     * The frame time of the {@link Handler} ticks below API 16, in milliseconds
+     */
+    private static final long FRAME_DELAY = 16;
+
+    private static CircularBarClock sInstance;
+
+    /**
+     * The bars animated by the clock
+     */
+    private final ArrayList<CircularBar> mBars = new ArrayList<>();
+
+    /**
+     * Schedules the frames, depending on the API level
+     */
+    private final FrameScheduler mScheduler;
+
+    /**
+     * True while a frame is scheduled
+     */
+    private boolean mScheduled;
+
+    private CircularBarClock() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            mScheduler = new ChoreographerScheduler(this);
+        } else {
+            mScheduler = new HandlerScheduler(this);
+        }
+    }
+
+    /**
+     * @return The clock of the main thread
+     */
+    public static CircularBarClock getInstance() {
+        if (sInstance == null) {
+            sInstance = new CircularBarClock();
+        }
+        return sInstance;
+    }
+
+    /**
+     * Animates the bar from the next frame on, until {@link CircularBar#onClockFrame(long)} returns false.
+     * A bar stopping its animation is dropped on the next frame, when it returns false.
+     *
+     * @param bar The bar to animate
+     */
+    void add(CircularBar bar) {
+        if (!mBars.contains(bar)) {
+            mBars.add(bar);
+        }
+        if (!mScheduled) {
+            mScheduled = true;
+            mScheduler.schedule();
+        }
+    }
+
+    /**
+     * @return The number of bars animated
+     */
+    public int getActiveCount() {
+        return mBars.size();
+    }
+
+    /**
+     * Advances every bar, drops the idle ones and schedules the next frame if any bar is left
+     *
+     * @param frameTimeMillis The time of the frame in the {@link SystemClock#uptimeMillis()} time base
+     */
+    void doFrame(long frameTimeMillis) {
+        mScheduled = false;
+        int size = mBars.size();
+        int kept = 0;
+        for (int index = 0; index < size; index++) {
+            CircularBar bar = mBars.get(index);
+            if (bar.onClockFrame(frameTimeMillis)) {
+                mBars.set(kept++, bar);
+            }
+        }
+        //Bars added while looping are kept too
+        for (int index = size; index < mBars.size(); index++) {
+            mBars.set(kept++, mBars.get(index));
+        }
+        for (int index = mBars.size() - 1; index >= kept; index--) {
+            mBars.remove(index);
+        }
+        if (!mBars.isEmpty() && !mScheduled) {
+            mScheduled = true;
+            mScheduler.schedule();
+        }
+    }
+
+    /**
+     * Posts the next frame of the clock
+     */
+    private interface FrameScheduler {
+        void schedule();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class ChoreographerScheduler implements FrameScheduler, Choreographer.FrameCallback {
+        private final CircularBarClock mClock;
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+
+        ChoreographerScheduler(CircularBarClock clock) {
+            mClock = clock;
+        }
+
+        @Override
+        public void schedule() {
+            mChoreographer.postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mClock.doFrame(frameTimeNanos / 1000000);
+        }
+    }
+
+    private static class HandlerScheduler implements FrameScheduler, Runnable {
+        private final CircularBarClock mClock;
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+        HandlerScheduler(CircularBarClock clock) {
+            mClock = clock;
+        }
+
+        @Override
+        public void schedule() {
+            mHandler.postDelayed(this, FRAME_DELAY);
+        }
+
+        @Override
+        public void run() {
+            mClock.doFrame(SystemClock.uptimeMillis());
+        }
+    }
+}
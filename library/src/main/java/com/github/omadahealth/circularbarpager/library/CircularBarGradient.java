@@ -0,0 +1,140 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library;
+
+import java.util.Arrays;
+
+/**
+ * The immutable description of a gradient drawn by a {@link CircularBar}: its type, colors and
+ * optional color positions. The bar builds the matching {@link android.graphics.Shader} only when its
+ * size changes, see {@link CircularBar#setReachedArcGradient(CircularBarGradient)}.
+ */
+public final class CircularBarGradient {
+
+    /**
+     * The shapes of the gradients
+     */
+    public enum Type {
+        /**
+         * The colors go around the circle, starting at 12 o'clock, for the arcs
+         */
+        SWEEP,
+        /**
+         * The colors go from the top to the bottom of the circle, for the fill
+         */
+        LINEAR,
+        /**
+         * The colors go from the center to the edge of the circle, for the fill
+         */
+        RADIAL
+    }
+
+    private final Type mType;
+    private final int[] mColors;
+    private final float[] mPositions;
+
+    /**
+     * @param type      The shape of the gradient
+     * @param colors    At least two colors
+     * @param positions The relative positions of the colors, from 0 to 1, or null to space them evenly
+     */
+    public CircularBarGradient(Type type, int[] colors, float[] positions) {
+        if (type == null) {
+            throw new IllegalArgumentException("type must not be null");
+        }
+        if (colors == null || colors.length < 2) {
+            throw new IllegalArgumentException("A gradient needs at least two colors");
+        }
+        if (positions != null && positions.length != colors.length) {
+            throw new IllegalArgumentException("positions must have one value per color");
+        }
+        mType = type;
+        mColors = colors.clone();
+        mPositions = positions == null ? null : positions.clone();
+    }
+
+    /**
+     * @param colors At least two colors, evenly spaced around the circle
+     * @return A {@link Type#SWEEP} gradient
+     */
+    public static CircularBarGradient sweep(int... colors) {
+        return new CircularBarGradient(Type.SWEEP, colors, null);
+    }
+
+    /**
+     * @param colors At least two colors, evenly spaced from top to bottom
+     * @return A {@link Type#LINEAR} gradient
+     */
+    public static CircularBarGradient linear(int... colors) {
+        return new CircularBarGradient(Type.LINEAR, colors, null);
+    }
+
+    /**
+     * @param colors At least two colors, evenly spaced from the center to the edge
+     * @return A {@link Type#RADIAL} gradient
+     */
+    public static CircularBarGradient radial(int... colors) {
+        return new CircularBarGradient(Type.RADIAL, colors, null);
+    }
+
+    public Type getType() {
+        return mType;
+    }
+
+    /**
+     * @return The colors, do not modify
+     */
+    int[] getColors() {
+        return mColors;
+    }
+
+    /**
+     * @return The positions of the colors or null, do not modify
+     */
+    float[] getPositions() {
+        return mPositions;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CircularBarGradient)) {
+            return false;
+        }
+        CircularBarGradient other = (CircularBarGradient) o;
+        return mType == other.mType
+                && Arrays.equals(mColors, other.mColors)
+                && Arrays.equals(mPositions, other.mPositions);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mType.hashCode();
+        result = 31 * result + Arrays.hashCode(mColors);
+        result = 31 * result + Arrays.hashCode(mPositions);
+        return result;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library;
+
+import com.github.omadahealth.circularbarpager.library.core.TimingHistogram;
+
+/**
+ * The render metrics of a {@link CircularBar} or a {@link CircularBarPager}, recorded once enabled with
+ * {@link CircularBar#setMetricsEnabled(boolean)} or {@link CircularBarPager#setMetricsEnabled(boolean)}:
+ * the number of invalidates and draws, and histograms of the time spent drawing, measuring and
+ * setting the progress. Recording never allocates, and a disabled view only pays for a null check.
+ * <p>
+ * The metrics are updated on the main thread. Read them there, or take a {@link #snapshot()}
+ * to hand them over to another thread.
+ */
+public class CircularBarMetrics {
+
+    /**
+     * Called with the metrics every few draws, see {@link #setListener(Listener, int)}
+     */
+    public interface Listener {
+        /**
+         * @param metrics The live metrics, only valid during the call. Use {@link #snapshot()} to keep them
+         */
+        void onMetrics(CircularBarMetrics metrics);
+    }
+
+    private long mInvalidateCount;
+    private long mDrawCount;
+    private final TimingHistogram mDrawTimes = new TimingHistogram();
+    private final TimingHistogram mMeasureTimes = new TimingHistogram();
+    private final TimingHistogram mSetProgressTimes = new TimingHistogram();
+
+    private Listener mListener;
+    private int mReportInterval;
+
+    /**
+     * Sets a listener called every few draws, eg. to send percentiles to telemetry
+     *
+     * @param listener       The listener, null to remove it
+     * @param reportInterval The number of draws between two calls
+     */
+    public void setListener(Listener listener, int reportInterval) {
+        mListener = listener;
+        mReportInterval = Math.max(1, reportInterval);
+    }
+
+    void onInvalidate() {
+        mInvalidateCount++;
+    }
+
+    void onDraw(long nanos) {
+        mDrawCount++;
+        mDrawTimes.record(nanos);
+        if (mListener != null && mDrawCount % mReportInterval == 0) {
+            mListener.onMetrics(this);
+        }
+    }
+
+    void onMeasure(long nanos) {
+        mMeasureTimes.record(nanos);
+    }
+
+    void onSetProgress(long nanos) {
+        mSetProgressTimes.record(nanos);
+    }
+
+    /**
+     * @return The number of calls to {@link CircularBar#invalidate()}
+     */
+    public long getInvalidateCount() {
+        return mInvalidateCount;
+    }
+
+    /**
+     * @return The number of draws
+     */
+    public long getDrawCount() {
+        return mDrawCount;
+    }
+
+    /**
+     * @return The time spent in each draw
+     */
+    public TimingHistogram getDrawTimes() {
+        return mDrawTimes;
+    }
+
+    /**
+     * @return The time spent in each measure
+     */
+    public TimingHistogram getMeasureTimes() {
+        return mMeasureTimes;
+    }
+
+    /**
+     * @return The time spent in each {@link CircularBar#setProgress(float)}
+     */
+    public TimingHistogram getSetProgressTimes() {
+        return mSetProgressTimes;
+    }
+
+    /**
+     * @return A copy of the current metrics, without the listener
+     */
+    public CircularBarMetrics snapshot() {
+        CircularBarMetrics snapshot = new CircularBarMetrics();
+        snapshot.mInvalidateCount = mInvalidateCount;
+        snapshot.mDrawCount = mDrawCount;
+        mDrawTimes.copyTo(snapshot.mDrawTimes);
+        mMeasureTimes.copyTo(snapshot.mMeasureTimes);
+        mSetProgressTimes.copyTo(snapshot.mSetProgressTimes);
+        return snapshot;
+    }
+
+    /**
+     * Clears every counter and histogram
+     */
+    public void reset() {
+        mInvalidateCount = 0;
+        mDrawCount = 0;
+        mDrawTimes.reset();
+        mMeasureTimes.reset();
+        mSetProgressTimes.reset();
+    }
+}
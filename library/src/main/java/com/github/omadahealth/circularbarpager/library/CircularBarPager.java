@@ -79,6 +79,26 @@ public class CircularBarPager extends RelativeLayout {
      */
     private boolean isPaddingSet;
 
+    /**
+     * The measure metrics, null unless enabled with {@link #setMetricsEnabled(boolean)}
+     */
+    private CircularBarMetrics mMetrics;
+
+    /**
+     * Holds the hardware layer of this view during alpha and transform animations, created when first used
+     */
+    private HardwareLayerPromoter mHardwareLayerPromoter;
+
+    /**
+     * Promotes the {@link CircularBar} while the pages are swiped, null if disabled
+     */
+    private ViewPager.OnPageChangeListener mSwipeLayerListener;
+
+    /**
+     * True if {@link #mSwipeLayerListener} holds the layer of the bar
+     */
+    private boolean mSwipeLayerAcquired;
+
     public CircularBarPager(Context context) {
         this(context, null);
     }
@@ -154,6 +174,7 @@ public class CircularBarPager extends RelativeLayout {
      */
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        long start = mMetrics != null ? System.nanoTime() : 0;
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
 
         if (!isPaddingSet && mViewPager != null) {
@@ -166,6 +187,9 @@ public class CircularBarPager extends RelativeLayout {
 
             isPaddingSet = true;
         }
+        if (mMetrics != null) {
+            mMetrics.onMeasure(System.nanoTime() - start);
+        }
     }
 
     public void setViewPagerAdapter(PagerAdapter pagerAdapter) {
@@ -200,6 +224,113 @@ public class CircularBarPager extends RelativeLayout {
         mCircularBar.removeAllListeners();
     }
 
+    /**
+     * Enables the recording of the measure times of this view, see {@link #getMetrics()}.
+     * The metrics of the bar are enabled separately, with {@link CircularBar#setMetricsEnabled(boolean)}
+     *
+     * @param enabled True to record the metrics, false to stop and drop them
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled && mMetrics == null) {
+            mMetrics = new CircularBarMetrics();
+        } else if (!enabled) {
+            mMetrics = null;
+        }
+    }
+
+    /**
+     * The measure metrics of this view, see {@link #setMetricsEnabled(boolean)}
+     *
+     * @return The live metrics, null if disabled
+     */
+    public CircularBarMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Promotes the {@link CircularBar} to a hardware layer while the pages are dragged or settling, so that
+     * the pages faded by the {@link FadeViewPagerTransformer} are composited over the layer of the bar instead
+     * of its arcs being drawn again. The pages themselves are promoted by the {@link ViewPager} during swipes.
+     * To also promote this whole view during its own fades, see {@link #getHardwareLayerPromoter()}.
+     * <p>
+     * The setting is kept even if the view has no {@link ViewPager}, as when created without attributes, and the
+     * bar is then never promoted.
+     *
+     * @param enabled True to promote the bar during swipes, false otherwise
+     */
+    public void setSwipeLayerPromotionEnabled(boolean enabled) {
+        if (enabled == (mSwipeLayerListener != null)) {
+            return;
+        }
+        if (enabled) {
+            mSwipeLayerListener = new ViewPager.SimpleOnPageChangeListener() {
+                @Override
+                public void onPageScrollStateChanged(int state) {
+                    setSwipeLayerAcquired(state != ViewPager.SCROLL_STATE_IDLE);
+                }
+            };
+            if (mViewPager != null) {
+                mViewPager.addOnPageChangeListener(mSwipeLayerListener);
+            }
+        } else {
+            if (mViewPager != null) {
+                mViewPager.removeOnPageChangeListener(mSwipeLayerListener);
+            }
+            mSwipeLayerListener = null;
+            setSwipeLayerAcquired(false);
+        }
+    }
+
+    /**
+     * Indicates if the bar is promoted during swipes, see {@link #setSwipeLayerPromotionEnabled(boolean)}
+     *
+     * @return
+     */
+    public boolean isSwipeLayerPromotionEnabled() {
+        return mSwipeLayerListener != null;
+    }
+
+    /**
+     * Acquires or releases the layer of the bar, once per swipe
+     *
+     * @param acquired True while a swipe is running
+     */
+    private void setSwipeLayerAcquired(boolean acquired) {
+        if (acquired == mSwipeLayerAcquired || mCircularBar == null) {
+            return;
+        }
+        mSwipeLayerAcquired = acquired;
+        if (acquired) {
+            mCircularBar.getHardwareLayerPromoter().acquire();
+        } else {
+            mCircularBar.getHardwareLayerPromoter().release();
+        }
+    }
+
+    /**
+     * The reference counted hardware layer of this whole view, to hold during its alpha or transform animations
+     * with {@link HardwareLayerPromoter#getAnimatorListener()}. Do not hold it during swipes, the layer would be
+     * drawn again each frame as the pages move. The layer is dropped when this view is detached.
+     *
+     * @return The layer promoter of this view
+     */
+    public HardwareLayerPromoter getHardwareLayerPromoter() {
+        if (mHardwareLayerPromoter == null) {
+            mHardwareLayerPromoter = new HardwareLayerPromoter(this);
+        }
+        return mHardwareLayerPromoter;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        //A swipe or an animation holding a layer may never end
+        mSwipeLayerAcquired = false;
+        if (mHardwareLayerPromoter != null) {
+            mHardwareLayerPromoter.releaseAll();
+        }
+    }
+
     /**
      * @return The circular bar of this view
      */
@@ -0,0 +1,227 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+/**
+ * A cache of rendered bars, shared by the {@link CircularBar}s of a scrolling list with
+ * {@link CircularBar#setRenderCache(CircularBarRenderCache)}. Bars that are not animating draw a bitmap of the
+ * cache instead of their arcs, so that binding or drawing an item is a single blit once its look has been rendered.
+ * <p>
+ * Bitmaps are keyed by size, padding, level of detail, {@link CircularBarStyle} and {@link CircularBarState}, with the progress
+ * quantized to {@link #setProgressSteps(int)} steps of the max so that close values share a bitmap. The least
+ * recently used bitmaps are evicted past the byte budget; bars still drawing an evicted bitmap keep it.
+ * <p>
+ * Use a cache from the main thread only.
+ */
+public class CircularBarRenderCache {
+
+    /**
+     * The default number of progress steps, one per degree
+     */
+    public static final int DEFAULT_PROGRESS_STEPS = 360;
+
+    private final LruCache<Key, Bitmap> mBitmaps;
+
+    /**
+     * Renders the missing bitmaps, created on the first miss
+     */
+    private CircularBarRenderer mRenderer;
+
+    private int mProgressSteps = DEFAULT_PROGRESS_STEPS;
+
+    /**
+     * @param maxBytes The max number of bytes of the cached bitmaps
+     */
+    public CircularBarRenderCache(int maxBytes) {
+        mBitmaps = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * Sets the number of distinct progress values cached between 0 and the max, {@link #DEFAULT_PROGRESS_STEPS} by default.
+     * Fewer steps share more bitmaps but draw the reached arc less precisely.
+     *
+     * @param progressSteps The number of steps, at least 1
+     */
+    public void setProgressSteps(int progressSteps) {
+        if (progressSteps < 1) {
+            throw new IllegalArgumentException("progressSteps must be at least 1: " + progressSteps);
+        }
+        if (progressSteps != mProgressSteps) {
+            mProgressSteps = progressSteps;
+            mBitmaps.evictAll();
+        }
+    }
+
+    public int getProgressSteps() {
+        return mProgressSteps;
+    }
+
+    /**
+     * @param progress The progress
+     * @param max      The max progress
+     * @return The progress rounded to the closest step
+     */
+    public float quantizeProgress(float progress, int max) {
+        return Math.round(progress / max * mProgressSteps) * (float) max / mProgressSteps;
+    }
+
+    /**
+     * @param state A state
+     * @return The state with its progress rounded to the closest step
+     */
+    public CircularBarState quantize(CircularBarState state) {
+        float progress = quantizeProgress(state.getProgress(), state.getMax());
+        return progress == state.getProgress() ? state : state.withProgress(progress);
+    }
+
+    /**
+     * Returns the cached bitmap of a bar, rendering and caching it first on a miss
+     *
+     * @param style  The style of the bar
+     * @param state  The state of the bar, its progress is quantized
+     * @param width  The width of the bar
+     * @param height The height of the bar
+     * @param levelOfDetailThreshold The {@link CircularBar#getLevelOfDetailThreshold()} of the bar
+     * @return The bitmap, do not modify or recycle it
+     */
+    public Bitmap obtain(CircularBarStyle style, CircularBarState state, int width, int height,
+                         int paddingLeft, int paddingTop, int paddingRight, int paddingBottom,
+                         float levelOfDetailThreshold) {
+        Key key = new Key(style, quantize(state), width, height, paddingLeft, paddingTop, paddingRight, paddingBottom,
+                levelOfDetailThreshold);
+        Bitmap bitmap = mBitmaps.get(key);
+        if (bitmap == null) {
+            if (mRenderer == null) {
+                mRenderer = new CircularBarRenderer(style);
+            } else {
+                mRenderer.setStyle(style);
+            }
+            mRenderer.setPadding(paddingLeft, paddingTop, paddingRight, paddingBottom);
+            mRenderer.setLevelOfDetailThreshold(levelOfDetailThreshold);
+            bitmap = mRenderer.render(key.mState, width, height);
+            mBitmaps.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Drops every bitmap
+     */
+    public void clear() {
+        mBitmaps.evictAll();
+    }
+
+    /**
+     * @return The number of bytes of the cached bitmaps
+     */
+    public int getSize() {
+        return mBitmaps.size();
+    }
+
+    public int getMaxSize() {
+        return mBitmaps.maxSize();
+    }
+
+    public int getHitCount() {
+        return mBitmaps.hitCount();
+    }
+
+    public int getMissCount() {
+        return mBitmaps.missCount();
+    }
+
+    /**
+     * Identifies a rendered bitmap
+     */
+    private static final class Key {
+
+        private final CircularBarStyle mStyle;
+        private final CircularBarState mState;
+        private final int mWidth;
+        private final int mHeight;
+        private final int mPaddingLeft;
+        private final int mPaddingTop;
+        private final int mPaddingRight;
+        private final int mPaddingBottom;
+        private final float mLevelOfDetailThreshold;
+        private final int mHashCode;
+
+        Key(CircularBarStyle style, CircularBarState state, int width, int height,
+            int paddingLeft, int paddingTop, int paddingRight, int paddingBottom, float levelOfDetailThreshold) {
+            mStyle = style;
+            mState = state;
+            mWidth = width;
+            mHeight = height;
+            mPaddingLeft = paddingLeft;
+            mPaddingTop = paddingTop;
+            mPaddingRight = paddingRight;
+            mPaddingBottom = paddingBottom;
+            mLevelOfDetailThreshold = levelOfDetailThreshold;
+            int result = style.hashCode();
+            result = 31 * result + state.hashCode();
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + paddingLeft;
+            result = 31 * result + paddingTop;
+            result = 31 * result + paddingRight;
+            result = 31 * result + paddingBottom;
+            result = 31 * result + Float.floatToIntBits(levelOfDetailThreshold);
+            mHashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return mHashCode == other.mHashCode
+                    && mWidth == other.mWidth
+                    && mHeight == other.mHeight
+                    && mPaddingLeft == other.mPaddingLeft
+                    && mPaddingTop == other.mPaddingTop
+                    && mPaddingRight == other.mPaddingRight
+                    && mPaddingBottom == other.mPaddingBottom
+                    && mLevelOfDetailThreshold == other.mLevelOfDetailThreshold
+                    && mStyle.equals(other.mStyle)
+                    && mState.equals(other.mState);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import com.github.omadahealth.circularbarpager.library.core.ArcGeometry;
+import com.github.omadahealth.circularbarpager.library.core.ArcRuns;
+import com.github.omadahealth.circularbarpager.library.core.ArcSegments;
+
+/**
+ * Draws a {@link CircularBarState} with a {@link CircularBarStyle} into any {@link Canvas} or {@link Bitmap},
+ * without a {@link CircularBar} view, eg. for widgets, notifications or shared images.
+ * The arcs use the same geometry and draw order as {@link CircularBar#onDraw(Canvas)}.
+ * <p>
+ * A renderer can be used from any thread, but only one thread at a time: it keeps the angles and rects
+ * of the last render to draw the next one without allocating. Use one renderer per thread.
+ * It draws with its own copies of the paints of the style, never with the paints shared by the views.
+ */
+public class CircularBarRenderer {
+
+    private CircularBarStyle mStyle;
+
+    /**
+     * Copies of the paints of {@link #mStyle}, as {@link Paint} is not thread safe
+     */
+    private final Paint mCircleFillPaint = new Paint();
+    private final Paint mClockwiseReachedArcPaint = new Paint();
+    private final Paint mClockwiseOutlineArcPaint = new Paint();
+    private final Paint mCounterClockwiseReachedArcPaint = new Paint();
+    private final Paint mCounterClockwiseOutlineArcPaint = new Paint();
+
+    private final ArcSegments mArcSegments = new ArcSegments();
+    private final ArcRuns mReachedArcRuns = new ArcRuns();
+    private final ArcRuns mOutlineArcRuns = new ArcRuns();
+
+    private final float[] mArcRect = new float[4];
+    private final RectF mFillCircleRectF = new RectF();
+    private final RectF mReachedArcRectF = new RectF();
+    private final RectF mOutlineArcRectF = new RectF();
+
+    /**
+     * The canvas of {@link #render(CircularBarState, Bitmap)}, moved from bitmap to bitmap
+     */
+    private Canvas mBitmapCanvas;
+
+    private int mPaddingLeft;
+    private int mPaddingTop;
+    private int mPaddingRight;
+    private int mPaddingBottom;
+
+    /**
+     * See {@link CircularBar#setLevelOfDetailThreshold(float)}
+     */
+    private float mLevelOfDetailThreshold;
+
+    /**
+     * The state of the segments in {@link #mArcSegments}
+     */
+    private CircularBarState mSegmentsState;
+
+    /**
+     * @param style The colors and widths of the bars to draw
+     */
+    public CircularBarRenderer(CircularBarStyle style) {
+        setStyle(style);
+    }
+
+    /**
+     * Copies the style, paints, padding and level of detail of a renderer, without reading the paints
+     * shared by the views. The renderer copied must not be changed meanwhile.
+     *
+     * @param renderer The renderer to copy
+     */
+    CircularBarRenderer(CircularBarRenderer renderer) {
+        mStyle = renderer.mStyle;
+        mCircleFillPaint.set(renderer.mCircleFillPaint);
+        mClockwiseReachedArcPaint.set(renderer.mClockwiseReachedArcPaint);
+        mClockwiseOutlineArcPaint.set(renderer.mClockwiseOutlineArcPaint);
+        mCounterClockwiseReachedArcPaint.set(renderer.mCounterClockwiseReachedArcPaint);
+        mCounterClockwiseOutlineArcPaint.set(renderer.mCounterClockwiseOutlineArcPaint);
+        setPadding(renderer.mPaddingLeft, renderer.mPaddingTop, renderer.mPaddingRight, renderer.mPaddingBottom);
+        mLevelOfDetailThreshold = renderer.mLevelOfDetailThreshold;
+    }
+
+    public void setStyle(CircularBarStyle style) {
+        if (style == null) {
+            throw new IllegalArgumentException("style must not be null");
+        }
+        if (style == mStyle) {
+            return;
+        }
+        mStyle = style;
+        mCircleFillPaint.set(style.getCircleFillPaint());
+        mClockwiseReachedArcPaint.set(style.getClockwiseReachedArcPaint());
+        mClockwiseOutlineArcPaint.set(style.getClockwiseOutlineArcPaint());
+        mCounterClockwiseReachedArcPaint.set(style.getCounterClockwiseReachedArcPaint());
+        mCounterClockwiseOutlineArcPaint.set(style.getCounterClockwiseOutlineArcPaint());
+    }
+
+    public CircularBarStyle getStyle() {
+        return mStyle;
+    }
+
+    /**
+     * Sets the space between the edges of the canvas and the bar, like the padding of a {@link CircularBar}
+     */
+    public void setPadding(int left, int top, int right, int bottom) {
+        mPaddingLeft = left;
+        mPaddingTop = top;
+        mPaddingRight = right;
+        mPaddingBottom = bottom;
+    }
+
+    /**
+     * Groups segments shorter than a length into buckets, see {@link CircularBar#setLevelOfDetailThreshold(float)}
+     *
+     * @param minArcLength The min length of an arc in pixels, 0 to draw every segment
+     */
+    public void setLevelOfDetailThreshold(float minArcLength) {
+        mLevelOfDetailThreshold = Math.max(0, minArcLength);
+    }
+
+    /**
+     * Renders a state into a new bitmap
+     *
+     * @param state  The state to draw
+     * @param width  The width of the bitmap
+     * @param height The height of the bitmap
+     * @return A new {@link Bitmap.Config#ARGB_8888} bitmap
+     */
+    public Bitmap render(CircularBarState state, int width, int height) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        render(state, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * Clears a bitmap then renders a state into it, to reuse bitmaps
+     *
+     * @param state  The state to draw
+     * @param bitmap A mutable bitmap
+     */
+    public void render(CircularBarState state, Bitmap bitmap) {
+        bitmap.eraseColor(Color.TRANSPARENT);
+        if (mBitmapCanvas == null) {
+            mBitmapCanvas = new Canvas(bitmap);
+        } else {
+            mBitmapCanvas.setBitmap(bitmap);
+        }
+        draw(mBitmapCanvas, bitmap.getWidth(), bitmap.getHeight(), state);
+        mBitmapCanvas.setBitmap(null);
+    }
+
+    /**
+     * Draws a state in the top left (width, height) area of a canvas
+     *
+     * @param canvas The canvas to draw into
+     * @param width  The width of the area
+     * @param height The height of the area
+     * @param state  The state to draw
+     */
+    public void draw(Canvas canvas, int width, int height, CircularBarState state) {
+        CircularBarStyle style = mStyle;
+        float reachedArcWidth = style.getClockwiseReachedArcWidth();
+        getArcRect(width, height, reachedArcWidth, mFillCircleRectF);
+        getArcRect(width, height, reachedArcWidth / 2, mReachedArcRectF);
+        getArcRect(width, height, style.getClockwiseOutlineArcWidth() / 2, mOutlineArcRectF);
+
+        //Clamped rather than wrapped, so that the max draws a full ring
+        float progress = Math.max(-state.getMax(), Math.min(state.getProgress(), state.getMax()));
+        if (state.getSegmentCount() > 0) {
+            updateSegments(state);
+            mArcSegments.updateAngles(progress, state.getMax());
+            mArcSegments.buildRuns(mReachedArcRuns, mOutlineArcRuns);
+
+            if (state.isCircleFillEnabled()) {
+                if (state.getCircleFillMode() == CircularBar.CircleFillMode.PIE) {
+                    //Fill the circle to the point of the reached sweep
+                    for (int index = 0; index < mReachedArcRuns.size(); index++) {
+                        canvas.drawArc(mFillCircleRectF, mReachedArcRuns.getStart(index), mReachedArcRuns.getSweep(index), true, mCircleFillPaint);
+                    }
+                } else {
+                    //Fill the circle as a background
+                    canvas.drawArc(mOutlineArcRectF, ArcSegments.START_12, 360f, true, mCircleFillPaint);
+                }
+            }
+
+            //Draw the outline arc then the reached arc on top
+            boolean clockwise = progress >= 0;
+            for (int index = 0; index < mOutlineArcRuns.size(); index++) {
+                canvas.drawArc(mOutlineArcRectF, mOutlineArcRuns.getStart(index), mOutlineArcRuns.getSweep(index), false,
+                        clockwise ? mClockwiseOutlineArcPaint : mCounterClockwiseOutlineArcPaint);
+            }
+            for (int index = 0; index < mReachedArcRuns.size(); index++) {
+                canvas.drawArc(mReachedArcRectF, mReachedArcRuns.getStart(index), mReachedArcRuns.getSweep(index), false,
+                        clockwise ? mClockwiseReachedArcPaint : mCounterClockwiseReachedArcPaint);
+            }
+        }
+        if (state.isStartLineEnabled()) {
+            //Draw the bar start line
+            canvas.drawLine(mReachedArcRectF.centerX(), mReachedArcRectF.top - reachedArcWidth / 2, mReachedArcRectF.centerX() + 1,
+                    mReachedArcRectF.top + reachedArcWidth * 1.5f,
+                    progress >= 0 ? mClockwiseOutlineArcPaint : mCounterClockwiseOutlineArcPaint);
+        }
+    }
+
+    /**
+     * Copies the segments of a state into {@link #mArcSegments}, unless they are the segments of the last render,
+     * and limits the number of arcs to the level of detail
+     */
+    private void updateSegments(CircularBarState state) {
+        if (mSegmentsState == null || mSegmentsState.getSegmentCount() != state.getSegmentCount()
+                || !mSegmentsState.getFilledSegments().equals(state.getFilledSegments())) {
+            mArcSegments.setFilled(state.getFilledSegments(), state.getSegmentCount());
+            mSegmentsState = state;
+        }
+        int maxArcs = 0;
+        if (mLevelOfDetailThreshold > 0) {
+            float circumference = (float) Math.PI * mReachedArcRectF.width();
+            maxArcs = Math.max(1, (int) (circumference / mLevelOfDetailThreshold));
+        }
+        mArcSegments.setMaxArcs(maxArcs);
+    }
+
+    /**
+     * Updates a rect with the bounds of an arc, see {@link ArcGeometry#getArcRect(int, int, int, int, int, int, float, float[])}
+     */
+    private void getArcRect(int width, int height, float offset, RectF rectF) {
+        ArcGeometry.getArcRect(width, height, mPaddingLeft, mPaddingTop, mPaddingRight, mPaddingBottom, offset, mArcRect);
+        rectF.set(mArcRect[ArcGeometry.LEFT], mArcRect[ArcGeometry.TOP], mArcRect[ArcGeometry.RIGHT], mArcRect[ArcGeometry.BOTTOM]);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library;
+
+import java.util.BitSet;
+
+/**
+ * The immutable progress and segments of a {@link CircularBar}, drawn with a {@link CircularBarStyle} by a
+ * {@link CircularBarRenderer}. Get the state of a bar with {@link CircularBar#getState()}, or create one.
+ * Being immutable, a state can be handed to a background thread.
+ * <p>
+ * The {@code with} methods return a copy with one value changed.
+ */
+public final class CircularBarState {
+
+    private final float mProgress;
+    private final int mMax;
+    private final BitSet mFilled;
+    private final int mCount;
+    private final boolean mCircleFillEnabled;
+    private final CircularBar.CircleFillMode mCircleFillMode;
+    private final boolean mStartLineEnabled;
+
+    /**
+     * Creates a state with a single filled segment, no fill and no start line
+     *
+     * @param progress The progress, negative for counter clockwise
+     * @param max      The max progress
+     */
+    public CircularBarState(float progress, int max) {
+        this(progress, max, filledSegment(), 1, false, CircularBar.CircleFillMode.DEFAULT, false);
+    }
+
+    private CircularBarState(float progress, int max, BitSet filled, int count, boolean circleFillEnabled,
+                             CircularBar.CircleFillMode circleFillMode, boolean startLineEnabled) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("max must be positive: " + max);
+        }
+        mProgress = progress;
+        mMax = max;
+        mFilled = filled;
+        mCount = count;
+        mCircleFillEnabled = circleFillEnabled;
+        mCircleFillMode = circleFillMode;
+        mStartLineEnabled = startLineEnabled;
+    }
+
+    private static BitSet filledSegment() {
+        BitSet filled = new BitSet(1);
+        filled.set(0);
+        return filled;
+    }
+
+    /**
+     * @param progress The progress, negative for counter clockwise
+     * @return A copy of this state with the progress changed
+     */
+    public CircularBarState withProgress(float progress) {
+        return new CircularBarState(progress, mMax, mFilled, mCount, mCircleFillEnabled, mCircleFillMode, mStartLineEnabled);
+    }
+
+    /**
+     * @param max The max progress
+     * @return A copy of this state with the max changed
+     */
+    public CircularBarState withMax(int max) {
+        return new CircularBarState(mProgress, max, mFilled, mCount, mCircleFillEnabled, mCircleFillMode, mStartLineEnabled);
+    }
+
+    /**
+     * @param filled The filled state of each segment
+     * @return A copy of this state with the segments changed
+     */
+    public CircularBarState withSegments(boolean[] filled) {
+        int count = filled == null ? 0 : filled.length;
+        BitSet bits = new BitSet(count);
+        for (int index = 0; index < count; index++) {
+            bits.set(index, filled[index]);
+        }
+        return new CircularBarState(mProgress, mMax, bits, count, mCircleFillEnabled, mCircleFillMode, mStartLineEnabled);
+    }
+
+    /**
+     * @param filled The filled state of each segment, bit i set if segment i is filled
+     * @param count  The number of segments
+     * @return A copy of this state with the segments changed
+     */
+    public CircularBarState withSegments(BitSet filled, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of segments can not be negative, got " + count);
+        }
+        BitSet bits = filled == null ? new BitSet(count) : filled.get(0, count);
+        return new CircularBarState(mProgress, mMax, bits, count, mCircleFillEnabled, mCircleFillMode, mStartLineEnabled);
+    }
+
+    /**
+     * @param enabled        True to fill the circle with the fill color of the style
+     * @param circleFillMode How to fill the circle
+     * @return A copy of this state with the fill changed
+     */
+    public CircularBarState withCircleFill(boolean enabled, CircularBar.CircleFillMode circleFillMode) {
+        return new CircularBarState(mProgress, mMax, mFilled, mCount, enabled,
+                circleFillMode == null ? CircularBar.CircleFillMode.DEFAULT : circleFillMode, mStartLineEnabled);
+    }
+
+    /**
+     * @param enabled True to draw the line at the start of the bar
+     * @return A copy of this state with the start line changed
+     */
+    public CircularBarState withStartLineEnabled(boolean enabled) {
+        return new CircularBarState(mProgress, mMax, mFilled, mCount, mCircleFillEnabled, mCircleFillMode, enabled);
+    }
+
+    public float getProgress() {
+        return mProgress;
+    }
+
+    public int getMax() {
+        return mMax;
+    }
+
+    public int getSegmentCount() {
+        return mCount;
+    }
+
+    /**
+     * @param index The index of the segment
+     * @return True if the segment is filled
+     */
+    public boolean isSegmentFilled(int index) {
+        return mFilled.get(index);
+    }
+
+    /**
+     * @return The filled segments, do not modify
+     */
+    BitSet getFilledSegments() {
+        return mFilled;
+    }
+
+    public boolean isCircleFillEnabled() {
+        return mCircleFillEnabled;
+    }
+
+    public CircularBar.CircleFillMode getCircleFillMode() {
+        return mCircleFillMode;
+    }
+
+    public boolean isStartLineEnabled() {
+        return mStartLineEnabled;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CircularBarState)) {
+            return false;
+        }
+        CircularBarState other = (CircularBarState) o;
+        return Float.compare(mProgress, other.mProgress) == 0
+                && mMax == other.mMax
+                && mCount == other.mCount
+                && mFilled.equals(other.mFilled)
+                && mCircleFillEnabled == other.mCircleFillEnabled
+                && mCircleFillMode == other.mCircleFillMode
+                && mStartLineEnabled == other.mStartLineEnabled;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Float.floatToIntBits(mProgress);
+        result = 31 * result + mMax;
+        result = 31 * result + mCount;
+        result = 31 * result + mFilled.hashCode();
+        result = 31 * result + (mCircleFillEnabled ? 1 : 0);
+        result = 31 * result + mCircleFillMode.ordinal();
+        result = 31 * result + (mStartLineEnabled ? 1 : 0);
+        return result;
+    }
+}
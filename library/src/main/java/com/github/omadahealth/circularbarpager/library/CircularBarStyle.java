@@ -0,0 +1,432 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library;
+
+import android.graphics.Paint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The immutable colors and widths of a {@link CircularBar}, with the {@link android.graphics.Paint}s drawing them.
+ * A style can be shared by any number of bars: get it with {@link CircularBar#getBarStyle()} and apply it
+ * with {@link CircularBar#setBarStyle(CircularBarStyle)}.
+ * <p>
+ * The {@code with} methods return a copy with one value changed, only the affected paint is replaced.
+ * Paints are taken from a process wide cache keyed by color, width and style, so bars with the same colors
+ * share the same paints. They must never be modified.
+ */
+public final class CircularBarStyle {
+
+    /**
+     * The clockwise progress area bar color
+     */
+    private int mClockwiseArcColor;
+
+    /**
+     * The counter clockwise progress area bar color
+     */
+    private int mCounterClockwiseArcColor;
+
+    /**
+     * The clockwise bar outline area color.
+     */
+    private int mClockwiseOutlineArcColor;
+
+    /**
+     * The counter clockwise bar outline area color.
+     */
+    private int mCounterClockwiseOutlineArcColor;
+
+    /**
+     * The color to fill the circle center
+     */
+    private int mCircleFillColor;
+
+    /**
+     * The clockwise width of the reached area
+     */
+    private float mClockwiseReachedArcWidth;
+
+    /**
+     * The counter clockwise width of the reached area
+     */
+    private float mCounterClockwiseReachedArcWidth;
+
+    /**
+     * The clockwise width of the outline area
+     */
+    private float mClockwiseOutlineArcWidth;
+
+    /**
+     * The counter clockwise width of the outline area
+     */
+    private float mCounterClockwiseOutlineArcWidth;
+
+    /**
+     * The Paint of the clockwise reached area.
+     */
+    private Paint mClockwiseReachedArcPaint;
+
+    /**
+     * The Paint of the counter clockwise reached area.
+     */
+    private Paint mCounterClockwiseReachedArcPaint;
+
+    /**
+     * The Painter of the clockwise outline area.
+     */
+    private Paint mClockwiseOutlineArcPaint;
+
+    /**
+     * The Painter of the counter clockwise outline area.
+     */
+    private Paint mCounterClockwiseOutlineArcPaint;
+
+    /**
+     * The Painter of the fill circle.
+     */
+    private Paint mCircleFillPaint;
+
+    /**
+     * Creates a style with every color and width set
+     */
+    public CircularBarStyle(int clockwiseArcColor, int clockwiseOutlineArcColor,
+                            int counterClockwiseArcColor, int counterClockwiseOutlineArcColor,
+                            int circleFillColor,
+                            float clockwiseReachedArcWidth, float clockwiseOutlineArcWidth,
+                            float counterClockwiseReachedArcWidth, float counterClockwiseOutlineArcWidth) {
+        mClockwiseArcColor = clockwiseArcColor;
+        mClockwiseOutlineArcColor = clockwiseOutlineArcColor;
+        mCounterClockwiseArcColor = counterClockwiseArcColor;
+        mCounterClockwiseOutlineArcColor = counterClockwiseOutlineArcColor;
+        mCircleFillColor = circleFillColor;
+        mClockwiseReachedArcWidth = clockwiseReachedArcWidth;
+        mClockwiseOutlineArcWidth = clockwiseOutlineArcWidth;
+        mCounterClockwiseReachedArcWidth = counterClockwiseReachedArcWidth;
+        mCounterClockwiseOutlineArcWidth = counterClockwiseOutlineArcWidth;
+
+        mClockwiseReachedArcPaint = PaintCache.obtain(clockwiseArcColor, clockwiseReachedArcWidth, Paint.Style.STROKE);
+        mClockwiseOutlineArcPaint = PaintCache.obtain(clockwiseOutlineArcColor, clockwiseOutlineArcWidth, Paint.Style.STROKE);
+        mCounterClockwiseReachedArcPaint = PaintCache.obtain(counterClockwiseArcColor, counterClockwiseReachedArcWidth, Paint.Style.STROKE);
+        mCounterClockwiseOutlineArcPaint = PaintCache.obtain(counterClockwiseOutlineArcColor, counterClockwiseOutlineArcWidth, Paint.Style.STROKE);
+        mCircleFillPaint = PaintCache.obtain(circleFillColor, 0, Paint.Style.FILL);
+    }
+
+    /**
+     * Copies the values and the paints of another style
+     */
+    private CircularBarStyle(CircularBarStyle other) {
+        mClockwiseArcColor = other.mClockwiseArcColor;
+        mClockwiseOutlineArcColor = other.mClockwiseOutlineArcColor;
+        mCounterClockwiseArcColor = other.mCounterClockwiseArcColor;
+        mCounterClockwiseOutlineArcColor = other.mCounterClockwiseOutlineArcColor;
+        mCircleFillColor = other.mCircleFillColor;
+        mClockwiseReachedArcWidth = other.mClockwiseReachedArcWidth;
+        mClockwiseOutlineArcWidth = other.mClockwiseOutlineArcWidth;
+        mCounterClockwiseReachedArcWidth = other.mCounterClockwiseReachedArcWidth;
+        mCounterClockwiseOutlineArcWidth = other.mCounterClockwiseOutlineArcWidth;
+
+        mClockwiseReachedArcPaint = other.mClockwiseReachedArcPaint;
+        mClockwiseOutlineArcPaint = other.mClockwiseOutlineArcPaint;
+        mCounterClockwiseReachedArcPaint = other.mCounterClockwiseReachedArcPaint;
+        mCounterClockwiseOutlineArcPaint = other.mCounterClockwiseOutlineArcPaint;
+        mCircleFillPaint = other.mCircleFillPaint;
+    }
+
+    /**
+     * @param color The clockwise reached arc color
+     * @return A copy of this style with the color changed, or this style if it is the same
+     */
+    public CircularBarStyle withClockwiseReachedArcColor(int color) {
+        if (color == mClockwiseArcColor) {
+            return this;
+        }
+        CircularBarStyle style = new CircularBarStyle(this);
+        style.mClockwiseArcColor = color;
+        style.mClockwiseReachedArcPaint = PaintCache.obtain(color, mClockwiseReachedArcWidth, Paint.Style.STROKE);
+        return style;
+    }
+
+    /**
+     * @param color The clockwise outline arc color
+     * @return A copy of this style with the color changed, or this style if it is the same
+     */
+    public CircularBarStyle withClockwiseOutlineArcColor(int color) {
+        if (color == mClockwiseOutlineArcColor) {
+            return this;
+        }
+        CircularBarStyle style = new CircularBarStyle(this);
+        style.mClockwiseOutlineArcColor = color;
+        style.mClockwiseOutlineArcPaint = PaintCache.obtain(color, mClockwiseOutlineArcWidth, Paint.Style.STROKE);
+        return style;
+    }
+
+    /**
+     * @param color The counter clockwise reached arc color
+     * @return A copy of this style with the color changed, or this style if it is the same
+     */
+    public CircularBarStyle withCounterClockwiseArcColor(int color) {
+        if (color == mCounterClockwiseArcColor) {
+            return this;
+        }
+        CircularBarStyle style = new CircularBarStyle(this);
+        style.mCounterClockwiseArcColor = color;
+        style.mCounterClockwiseReachedArcPaint = PaintCache.obtain(color, mCounterClockwiseReachedArcWidth, Paint.Style.STROKE);
+        return style;
+    }
+
+    /**
+     * @param color The counter clockwise outline arc color
+     * @return A copy of this style with the color changed, or this style if it is the same
+     */
+    public CircularBarStyle withCounterClockwiseOutlineArcColor(int color) {
+        if (color == mCounterClockwiseOutlineArcColor) {
+            return this;
+        }
+        CircularBarStyle style = new CircularBarStyle(this);
+        style.mCounterClockwiseOutlineArcColor = color;
+        style.mCounterClockwiseOutlineArcPaint = PaintCache.obtain(color, mCounterClockwiseOutlineArcWidth, Paint.Style.STROKE);
+        return style;
+    }
+
+    /**
+     * @param color The color to fill the circle center
+     * @return A copy of this style with the color changed, or this style if it is the same
+     */
+    public CircularBarStyle withCircleFillColor(int color) {
+        if (color == mCircleFillColor) {
+            return this;
+        }
+        CircularBarStyle style = new CircularBarStyle(this);
+        style.mCircleFillColor = color;
+        style.mCircleFillPaint = PaintCache.obtain(color, 0, Paint.Style.FILL);
+        return style;
+    }
+
+    /**
+     * @param width The clockwise reached arc width in pixels
+     * @return A copy of this style with the width changed, or this style if it is the same
+     */
+    public CircularBarStyle withClockwiseReachedArcWidth(float width) {
+        if (width == mClockwiseReachedArcWidth) {
+            return this;
+        }
+        CircularBarStyle style = new CircularBarStyle(this);
+        style.mClockwiseReachedArcWidth = width;
+        style.mClockwiseReachedArcPaint = PaintCache.obtain(mClockwiseArcColor, width, Paint.Style.STROKE);
+        return style;
+    }
+
+    /**
+     * @param width The clockwise outline arc width in pixels
+     * @return A copy of this style with the width changed, or this style if it is the same
+     */
+    public CircularBarStyle withClockwiseOutlineArcWidth(float width) {
+        if (width == mClockwiseOutlineArcWidth) {
+            return this;
+        }
+        CircularBarStyle style = new CircularBarStyle(this);
+        style.mClockwiseOutlineArcWidth = width;
+        style.mClockwiseOutlineArcPaint = PaintCache.obtain(mClockwiseOutlineArcColor, width, Paint.Style.STROKE);
+        return style;
+    }
+
+    /**
+     * @param width The counter clockwise reached arc width in pixels
+     * @return A copy of this style with the width changed, or this style if it is the same
+     */
+    public CircularBarStyle withCounterClockwiseReachedArcWidth(float width) {
+        if (width == mCounterClockwiseReachedArcWidth) {
+            return this;
+        }
+        CircularBarStyle style = new CircularBarStyle(this);
+        style.mCounterClockwiseReachedArcWidth = width;
+        style.mCounterClockwiseReachedArcPaint = PaintCache.obtain(mCounterClockwiseArcColor, width, Paint.Style.STROKE);
+        return style;
+    }
+
+    /**
+     * @param width The counter clockwise outline arc width in pixels
+     * @return A copy of this style with the width changed, or this style if it is the same
+     */
+    public CircularBarStyle withCounterClockwiseOutlineArcWidth(float width) {
+        if (width == mCounterClockwiseOutlineArcWidth) {
+            return this;
+        }
+        CircularBarStyle style = new CircularBarStyle(this);
+        style.mCounterClockwiseOutlineArcWidth = width;
+        style.mCounterClockwiseOutlineArcPaint = PaintCache.obtain(mCounterClockwiseOutlineArcColor, width, Paint.Style.STROKE);
+        return style;
+    }
+
+    public int getClockwiseReachedArcColor() {
+        return mClockwiseArcColor;
+    }
+
+    public int getClockwiseOutlineArcColor() {
+        return mClockwiseOutlineArcColor;
+    }
+
+    public int getCounterClockwiseReachedArcColor() {
+        return mCounterClockwiseArcColor;
+    }
+
+    public int getCounterClockwiseOutlineArcColor() {
+        return mCounterClockwiseOutlineArcColor;
+    }
+
+    public int getCircleFillColor() {
+        return mCircleFillColor;
+    }
+
+    public float getClockwiseReachedArcWidth() {
+        return mClockwiseReachedArcWidth;
+    }
+
+    public float getClockwiseOutlineArcWidth() {
+        return mClockwiseOutlineArcWidth;
+    }
+
+    public float getCounterClockwiseReachedArcWidth() {
+        return mCounterClockwiseReachedArcWidth;
+    }
+
+    public float getCounterClockwiseOutlineArcWidth() {
+        return mCounterClockwiseOutlineArcWidth;
+    }
+
+    /**
+     * @return The shared paint of the clockwise reached area, do not modify
+     */
+    public Paint getClockwiseReachedArcPaint() {
+        return mClockwiseReachedArcPaint;
+    }
+
+    /**
+     * @return The shared paint of the clockwise outline area, do not modify
+     */
+    public Paint getClockwiseOutlineArcPaint() {
+        return mClockwiseOutlineArcPaint;
+    }
+
+    /**
+     * @return The shared paint of the counter clockwise reached area, do not modify
+     */
+    public Paint getCounterClockwiseReachedArcPaint() {
+        return mCounterClockwiseReachedArcPaint;
+    }
+
+    /**
+     * @return The shared paint of the counter clockwise outline area, do not modify
+     */
+    public Paint getCounterClockwiseOutlineArcPaint() {
+        return mCounterClockwiseOutlineArcPaint;
+    }
+
+    /**
+     * @return The shared paint of the fill circle, do not modify
+     */
+    public Paint getCircleFillPaint() {
+        return mCircleFillPaint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CircularBarStyle)) {
+            return false;
+        }
+        CircularBarStyle other = (CircularBarStyle) o;
+        return mClockwiseArcColor == other.mClockwiseArcColor
+                && mClockwiseOutlineArcColor == other.mClockwiseOutlineArcColor
+                && mCounterClockwiseArcColor == other.mCounterClockwiseArcColor
+                && mCounterClockwiseOutlineArcColor == other.mCounterClockwiseOutlineArcColor
+                && mCircleFillColor == other.mCircleFillColor
+                && Float.compare(mClockwiseReachedArcWidth, other.mClockwiseReachedArcWidth) == 0
+                && Float.compare(mClockwiseOutlineArcWidth, other.mClockwiseOutlineArcWidth) == 0
+                && Float.compare(mCounterClockwiseReachedArcWidth, other.mCounterClockwiseReachedArcWidth) == 0
+                && Float.compare(mCounterClockwiseOutlineArcWidth, other.mCounterClockwiseOutlineArcWidth) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mClockwiseArcColor;
+        result = 31 * result + mClockwiseOutlineArcColor;
+        result = 31 * result + mCounterClockwiseArcColor;
+        result = 31 * result + mCounterClockwiseOutlineArcColor;
+        result = 31 * result + mCircleFillColor;
+        result = 31 * result + Float.floatToIntBits(mClockwiseReachedArcWidth);
+        result = 31 * result + Float.floatToIntBits(mClockwiseOutlineArcWidth);
+        result = 31 * result + Float.floatToIntBits(mCounterClockwiseReachedArcWidth);
+        result = 31 * result + Float.floatToIntBits(mCounterClockwiseOutlineArcWidth);
+        return result;
+    }
+
+    /**
+     * The process wide cache of the anti aliased paints, keyed by color, width and style.
+     * Bounded so that animating colors does not grow it forever, evicted paints stay valid
+     * for the styles still holding them.
+     */
+    private static final class PaintCache {
+
+        /**
+         * The max number of paints kept per style
+         */
+        private static final int MAX_SIZE = 64;
+
+        private static final Map<Long, Paint> sStrokePaints = newCache();
+
+        private static final Map<Long, Paint> sFillPaints = newCache();
+
+        private static Map<Long, Paint> newCache() {
+            return new LinkedHashMap<Long, Paint>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Paint> eldest) {
+                    return size() > MAX_SIZE;
+                }
+            };
+        }
+
+        /**
+         * @return The shared paint for these values, created if needed
+         */
+        static synchronized Paint obtain(int color, float width, Paint.Style style) {
+            Map<Long, Paint> cache = style == Paint.Style.FILL ? sFillPaints : sStrokePaints;
+            Long key = ((long) color << 32) | (Float.floatToIntBits(width) & 0xffffffffL);
+            Paint paint = cache.get(key);
+            if (paint == null) {
+                paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                paint.setColor(color);
+                paint.setAntiAlias(true);
+                paint.setStrokeWidth(width);
+                paint.setStyle(style);
+                cache.put(key, paint);
+            }
+            return paint;
+        }
+    }
+}
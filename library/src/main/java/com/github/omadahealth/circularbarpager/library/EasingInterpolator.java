@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library;
+
+import android.animation.TimeInterpolator;
+
+import com.github.omadahealth.circularbarpager.library.core.EasingTable;
+
+/**
+ * A {@link TimeInterpolator} reading an {@link EasingTable}, to use the precomputed
+ * easing curves with any animator
+ */
+public class EasingInterpolator implements TimeInterpolator {
+
+    private final EasingTable mEasingTable;
+
+    /**
+     * @param easingTable The curve to interpolate with, eg. {@link EasingTable#QUAD_IN_OUT}
+     */
+    public EasingInterpolator(EasingTable easingTable) {
+        mEasingTable = easingTable;
+    }
+
+    /**
+     * @param curve      The curve to sample
+     * @param resolution The number of intervals between the samples
+     */
+    public EasingInterpolator(EasingTable.Curve curve, int resolution) {
+        this(EasingTable.create(curve, resolution));
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        return mEasingTable.getValue(input);
+    }
+
+    /**
+     * @return The sampled curve
+     */
+    public EasingTable getEasingTable() {
+        return mEasingTable;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library;
+
+import android.graphics.LinearGradient;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RadialGradient;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.graphics.SweepGradient;
+
+/**
+ * The paint drawing one {@link CircularBarGradient} of a bar. The shader is built only when the bounds
+ * it is drawn in change, the rotation is applied through a reused {@link Matrix}, and the paint only
+ * copies the stroke of the style paint when that paint changes. Style paints are shared between bars,
+ * so each bar keeps its own gradient paints.
+ */
+final class GradientShaderCache {
+
+    private final CircularBarGradient mGradient;
+    private final Paint mPaint = new Paint();
+    private final Matrix mMatrix = new Matrix();
+    private final RectF mBounds = new RectF();
+    private Shader mShader;
+    private Paint mSource;
+    private float mRotation = Float.NaN;
+
+    GradientShaderCache(CircularBarGradient gradient) {
+        mGradient = gradient;
+    }
+
+    CircularBarGradient getGradient() {
+        return mGradient;
+    }
+
+    /**
+     * @param source   The style paint to take the stroke width and style from
+     * @param bounds   The bounds of the circle the gradient is drawn in
+     * @param rotation The rotation of the gradient in degrees, clockwise around the center
+     * @return The paint with the gradient
+     */
+    Paint getPaint(Paint source, RectF bounds, float rotation) {
+        if (mShader == null || !mBounds.equals(bounds)) {
+            mBounds.set(bounds);
+            mShader = createShader();
+            mPaint.setShader(mShader);
+            mRotation = Float.NaN;
+        }
+        if (source != mSource) {
+            mSource = source;
+            mPaint.set(source);
+            //The colors come from the shader, only keep the stroke of the style
+            mPaint.setColor(0xff000000);
+            mPaint.setShader(mShader);
+        }
+        if (rotation != mRotation) {
+            mRotation = rotation;
+            float degrees = mGradient.getType() == CircularBarGradient.Type.SWEEP ? rotation - 90f : rotation;
+            mMatrix.setRotate(degrees, mBounds.centerX(), mBounds.centerY());
+            mShader.setLocalMatrix(mMatrix);
+        }
+        return mPaint;
+    }
+
+    /**
+     * @return A new shader for {@link #mBounds}
+     */
+    private Shader createShader() {
+        int[] colors = mGradient.getColors();
+        float[] positions = mGradient.getPositions();
+        float centerX = mBounds.centerX();
+        float centerY = mBounds.centerY();
+        switch (mGradient.getType()) {
+            case LINEAR:
+                return new LinearGradient(centerX, mBounds.top, centerX, mBounds.bottom, colors, positions, Shader.TileMode.CLAMP);
+            case RADIAL:
+                return new RadialGradient(centerX, centerY, Math.max(mBounds.width() / 2, 1f), colors, positions, Shader.TileMode.CLAMP);
+            case SWEEP:
+            default:
+                return new SweepGradient(centerX, centerY, colors, positions);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.view.View;
+
+/**
+ * Promotes a view to a {@link View#LAYER_TYPE_HARDWARE} layer while alpha or transform animations run on it,
+ * so that each frame composites the layer instead of drawing the view again, then restores its previous layer type.
+ * Promotions are reference counted: overlapping animations each {@link #acquire()} the layer, and it is only
+ * dropped when the last one calls {@link #release()}.
+ * <p>
+ * Do not hold the layer while the content of the view changes every frame, eg. during a progress animation,
+ * the layer would be drawn again on top of being composited.
+ */
+public class HardwareLayerPromoter {
+
+    /**
+     * The promoted view
+     */
+    private final View mView;
+
+    /**
+     * The number of {@link #acquire()} not released yet
+     */
+    private int mCount;
+
+    /**
+     * The layer type of the view before it was promoted
+     */
+    private int mRestoreLayerType;
+
+    /**
+     * Acquires the layer when an animation starts and releases it when it ends
+     */
+    private final Animator.AnimatorListener mAnimatorListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationStart(Animator animation) {
+            acquire();
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            //Also called after onAnimationCancel
+            release();
+        }
+    };
+
+    public HardwareLayerPromoter(View view) {
+        mView = view;
+    }
+
+    /**
+     * Promotes the view to a hardware layer, if it is the first acquisition
+     */
+    public void acquire() {
+        if (mCount++ == 0) {
+            mRestoreLayerType = mView.getLayerType();
+            if (mRestoreLayerType != View.LAYER_TYPE_HARDWARE) {
+                mView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            }
+        }
+    }
+
+    /**
+     * Restores the previous layer type of the view, if it is the last release. Extra releases are ignored.
+     */
+    public void release() {
+        if (mCount == 0) {
+            return;
+        }
+        if (--mCount == 0) {
+            restore();
+        }
+    }
+
+    /**
+     * Restores the previous layer type of the view whatever the number of acquisitions,
+     * eg. when the view is detached and its animations are dropped
+     */
+    public void releaseAll() {
+        if (mCount > 0) {
+            mCount = 0;
+            restore();
+        }
+    }
+
+    private void restore() {
+        if (mView.getLayerType() != mRestoreLayerType) {
+            mView.setLayerType(mRestoreLayerType, null);
+        }
+    }
+
+    /**
+     * @return True if the view is promoted
+     */
+    public boolean isPromoted() {
+        return mCount > 0;
+    }
+
+    /**
+     * @return The number of acquisitions not released yet
+     */
+    public int getAcquireCount() {
+        return mCount;
+    }
+
+    /**
+     * A listener holding the layer for the duration of an animation, add it to alpha, translation,
+     * rotation or scale animators of the view. It can be added to any number of animators.
+     *
+     * @return The listener
+     */
+    public Animator.AnimatorListener getAnimatorListener() {
+        return mAnimatorListener;
+    }
+}
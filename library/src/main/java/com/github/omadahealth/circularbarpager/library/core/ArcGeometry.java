@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library.core;
+
+/**
+ * The bounds of the circles drawn by the bar, computed from the size and padding of the view
+ */
+public final class ArcGeometry {
+
+    /**
+     * The index of the left coordinate in a rect array
+     */
+    public static final int LEFT = 0;
+
+    /**
+     * The index of the top coordinate in a rect array
+     */
+    public static final int TOP = 1;
+
+    /**
+     * The index of the right coordinate in a rect array
+     */
+    public static final int RIGHT = 2;
+
+    /**
+     * The index of the bottom coordinate in a rect array
+     */
+    public static final int BOTTOM = 3;
+
+    private ArcGeometry() {
+    }
+
+    /**
+     * Calculates the coordinates of the square bounding the circle of an arc, so that a stroke of
+     * twice the offset fits perfectly within the available window
+     *
+     * @param width         The width of the view
+     * @param height        The height of the view
+     * @param paddingLeft   The left padding of the view
+     * @param paddingTop    The top padding of the view
+     * @param paddingRight  The right padding of the view
+     * @param paddingBottom The bottom padding of the view
+     * @param offset        Half the width of the paint stroke
+     * @param rect          Set to the left, top, right and bottom coordinates
+     * @return The diameter of the circle, before the offset
+     */
+    public static float getArcRect(int width, int height, int paddingLeft, int paddingTop,
+                                   int paddingRight, int paddingBottom, float offset, float[] rect) {
+        float left = paddingLeft + offset;
+        float top = paddingTop + offset;
+        float right = width - paddingRight - offset;
+        float bottom = height - paddingBottom - offset;
+
+        float availableWidth = right - left;
+        float availableHeight = bottom - top;
+
+        float diameter = Math.min(availableWidth, availableHeight);
+        float radius = diameter / 2;
+        float centerX = availableWidth / 2;
+        float centerY = availableHeight / 2;
+
+        rect[LEFT] = centerX - radius + offset;
+        rect[TOP] = centerY - radius + offset;
+        rect[RIGHT] = centerX + radius + offset;
+        rect[BOTTOM] = centerY + radius + offset;
+        return diameter;
+    }
+}
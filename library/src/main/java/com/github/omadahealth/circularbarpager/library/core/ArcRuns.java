@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library.core;
+
+/**
+ * The arcs to draw with one paint, where arcs that touch each other are merged into a single run.
+ * Drawing N segments then costs one draw call per run, ie. per change of state
+ * along the circle, instead of one per segment.
+ */
+public class ArcRuns {
+
+    /**
+     * Two angles closer than this, in degrees, are considered equal
+     */
+    private static final float EPSILON = 0.01f;
+
+    /**
+     * The start angle of each run
+     */
+    private float[] mStarts = new float[1];
+
+    /**
+     * The sweep angle of each run
+     */
+    private float[] mSweeps = new float[1];
+
+    /**
+     * The number of runs
+     */
+    private int mSize;
+
+    /**
+     * Removes all the runs
+     */
+    public void reset() {
+        mSize = 0;
+    }
+
+    /**
+     * Grows the storage so that adding up to {@code capacity} arcs does not allocate
+     *
+     * @param capacity The number of arcs
+     */
+    public void ensureCapacity(int capacity) {
+        if (mStarts.length < capacity) {
+            float[] starts = new float[capacity];
+            float[] sweeps = new float[capacity];
+            System.arraycopy(mStarts, 0, starts, 0, mSize);
+            System.arraycopy(mSweeps, 0, sweeps, 0, mSize);
+            mStarts = starts;
+            mSweeps = sweeps;
+        }
+    }
+
+    /**
+     * Adds an arc, merging it into the last run if it starts where the last run ends.
+     * Empty arcs and repeats of the last run are ignored.
+     *
+     * @param start The start angle of the arc
+     * @param sweep The sweep angle of the arc
+     */
+    public void add(float start, float sweep) {
+        if (sweep <= 0) {
+            return;
+        }
+        if (mSize > 0) {
+            int last = mSize - 1;
+            if (Math.abs(mStarts[last] - start) < EPSILON && Math.abs(mSweeps[last] - sweep) < EPSILON) {
+                return;
+            }
+            if (isSameAngle(mStarts[last] + mSweeps[last], start)) {
+                mSweeps[last] = Math.min(360f, mSweeps[last] + sweep);
+                return;
+            }
+        }
+        if (mSize == mStarts.length) {
+            ensureCapacity(mSize * 2);
+        }
+        mStarts[mSize] = start;
+        mSweeps[mSize] = sweep;
+        mSize++;
+    }
+
+    /**
+     * Merges the last run into the first one if it ends where the first one starts,
+     * to be called once every arc around the circle was added
+     */
+    public void close() {
+        if (mSize > 1) {
+            int last = mSize - 1;
+            if (isSameAngle(mStarts[last] + mSweeps[last], mStarts[0])) {
+                mStarts[0] = mStarts[last];
+                mSweeps[0] = Math.min(360f, mSweeps[0] + mSweeps[last]);
+                mSize--;
+            }
+        }
+    }
+
+    /**
+     * @return The number of runs
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @param index The index of the run
+     * @return The start angle of the run
+     */
+    public float getStart(int index) {
+        return mStarts[index];
+    }
+
+    /**
+     * @param index The index of the run
+     * @return The sweep angle of the run
+     */
+    public float getSweep(int index) {
+        return mSweeps[index];
+    }
+
+    /**
+     * @return True if both angles point to the same position on the circle
+     */
+    private static boolean isSameAngle(float first, float second) {
+        float difference = (first - second) % 360f;
+        if (difference < 0) {
+            difference += 360f;
+        }
+        return difference < EPSILON || difference > 360f - EPSILON;
+    }
+}
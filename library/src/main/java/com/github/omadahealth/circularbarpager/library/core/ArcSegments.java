@@ -0,0 +1,436 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Holds the equal parts (segments) the circle arc is divided into, and the sweep angles
+ * of the reached and outline arcs of each of them.
+ * The filled flags are packed in a {@code long[]} and the start angles in a {@code float[]}
+ * so that the draw loop reads primitives only, even for thousands of segments.
+ * <p>
+ * The start angles only depend on the number of segments and are computed once per change of it.
+ * Every filled segment shares the same reached sweep, so a progress update is constant time
+ * whatever the number of segments.
+ */
+public class ArcSegments {
+    /*
+     * Possible starting positions at 12, 3, 6, and 9 o'clock positions
+     *     12
+     * 9        3
+     *     6
+     */
+    /**
+     * 12 o'clock
+     */
+    public static final float START_12 = 270f;
+    /**
+     * 3 o'clock
+     */
+    public static final float START_3 = 0f;
+    /**
+     * 6 o'clock
+     */
+    public static final float START_6 = 90f;
+    /**
+     * 9 o'clock
+     */
+    public static final float START_9 = 180f;
+
+    /**
+     * The number of segments
+     */
+    private int mCount;
+
+    /**
+     * The filled flag of each segment, 64 per word
+     */
+    private long[] mFilled = new long[1];
+
+    /**
+     * The progress of the last {@link #updateAngles(float, int)}
+     */
+    private float mProgress;
+
+    /**
+     * The max progress of the last {@link #updateAngles(float, int)}
+     */
+    private int mMax;
+
+    /**
+     * The number of buckets the segments are grouped into when drawn, 0 to draw each segment
+     */
+    private int mBucketCount;
+
+    /**
+     * The index of the segment after the last segment of each bucket
+     */
+    private int[] mBucketEnd = new int[0];
+
+    /**
+     * The number of filled segments in each bucket
+     */
+    private int[] mBucketFilled = new int[0];
+
+    /**
+     * True if {@link #mBucketEnd} and {@link #mBucketFilled} must be computed again
+     */
+    private boolean mBucketsDirty = true;
+
+    /**
+     * The starting angle position of each segment
+     */
+    private float[] mPieceStart = new float[0];
+
+    /**
+     * The sweep angle of each segment
+     */
+    private float mPieceSweep;
+
+    /**
+     * The sweep angle of the reached arc of every filled segment in clockwise,
+     * or of the single reached arc in counter clockwise
+     */
+    private float mReachedSweep;
+
+    /**
+     * Sets the segments from a list of filled flags, a null flag counts as not filled
+     *
+     * @param filled The filled state of each segment
+     */
+    public void setFilled(List<Boolean> filled) {
+        int count = filled == null ? 0 : filled.size();
+        resize(count);
+        for (int index = 0; index < count; index++) {
+            Boolean value = filled.get(index);
+            set(index, value != null && value);
+        }
+    }
+
+    /**
+     * Sets the segments from an array of filled flags
+     *
+     * @param filled The filled state of each segment
+     */
+    public void setFilled(boolean[] filled) {
+        int count = filled == null ? 0 : filled.length;
+        resize(count);
+        for (int index = 0; index < count; index++) {
+            set(index, filled[index]);
+        }
+    }
+
+    /**
+     * Sets the segments from a {@link java.util.BitSet}
+     *
+     * @param filled The filled state of each segment, bit i set if segment i is filled
+     * @param count  The number of segments
+     */
+    public void setFilled(BitSet filled, int count) {
+        resize(count);
+        for (int index = 0; index < count; index++) {
+            set(index, filled != null && filled.get(index));
+        }
+    }
+
+    /**
+     * Sets up to 64 segments from a bitmask
+     *
+     * @param count The number of segments, between 0 and 64
+     * @param mask  The filled state of each segment, bit i set if segment i is filled
+     */
+    public void setFilled(int count, long mask) {
+        if (count > Long.SIZE) {
+            throw new IllegalArgumentException("A mask holds at most " + Long.SIZE + " segments, got " + count);
+        }
+        resize(count);
+        if (count > 0) {
+            mFilled[0] = count == Long.SIZE ? mask : mask & ((1L << count) - 1);
+        }
+    }
+
+    /**
+     * @return The number of segments
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * @param index The index of the segment
+     * @return True if the segment is filled
+     */
+    public boolean isFilled(int index) {
+        return (mFilled[index >> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return A new list holding the filled state of each segment
+     */
+    public List<Boolean> toList() {
+        List<Boolean> list = new ArrayList<>(mCount);
+        for (int index = 0; index < mCount; index++) {
+            list.add(isFilled(index));
+        }
+        return list;
+    }
+
+    /**
+     * Enforce the progress boundary at the max value allowed
+     *
+     * @param progress    The current progress
+     * @param newProgress The progress to set
+     * @param max         The max progress
+     * @return The progress to use
+     */
+    public static float enforceBounds(float progress, float newProgress, int max) {
+        if (Math.abs(newProgress) == Math.abs(max)) {
+            return progress;
+        }
+        return newProgress % max;
+    }
+
+    /**
+     * Update the angles of the arcs of every segment. Constant time, only the shared reached sweep changes.
+     *
+     * @param progress The current progress, negative for counter clockwise
+     * @param max      The max progress
+     * @return True if the angles changed
+     */
+    public boolean updateAngles(float progress, int max) {
+        if (progress == mProgress && max == mMax) {
+            return false;
+        }
+        mProgress = progress;
+        mMax = max;
+        if (progress >= 0) {
+            mReachedSweep = (progress / max * 360f) / mCount;
+        } else {
+            mReachedSweep = Math.abs(progress / max * 360f);
+        }
+        return true;
+    }
+
+    /**
+     * Round off the sweep angles that can result from rounding errors at the end of an animation.
+     * The total reached angle is rounded to the degree, not the angle of each segment,
+     * so that segments smaller than a degree do not vanish.
+     *
+     * @return True if the angles changed
+     */
+    public boolean roundSweeps() {
+        if (mMax != 0) {
+            float roundedProgress = Math.round(mProgress / mMax * 360f) * mMax / 360f;
+            return updateAngles(roundedProgress, mMax);
+        }
+        return false;
+    }
+
+    /**
+     * @param index The index of the segment
+     * @return Starting angle position of the reached arc of the segment
+     */
+    public float getReachedStart(int index) {
+        return mProgress >= 0 ? mPieceStart[index] : START_12 - mReachedSweep;
+    }
+
+    /**
+     * @param index The index of the segment
+     * @return The sweep angle of the reached arc of the segment
+     */
+    public float getReachedSweep(int index) {
+        return mProgress < 0 || isFilled(index) ? mReachedSweep : 0;
+    }
+
+    /**
+     * @param index The index of the segment
+     * @return Starting angle position of the outline arc of the segment
+     */
+    public float getOutlineStart(int index) {
+        return mProgress >= 0 ? (mPieceStart[index] + getReachedSweep(index)) % 360f : START_12;
+    }
+
+    /**
+     * @param index The index of the segment
+     * @return The sweep angle of the outline arc of the segment
+     */
+    public float getOutlineSweep(int index) {
+        return mProgress >= 0 ? mPieceSweep - getReachedSweep(index) : 360f - mReachedSweep;
+    }
+
+    /**
+     * Limits the number of arcs drawn for the segments. Above it, consecutive segments are grouped into
+     * buckets drawn as a single partially reached arc, proportional to the number of filled segments
+     * in the bucket. Used when the segments are too small to be seen one by one.
+     *
+     * @param maxArcs The max number of arcs, 0 or more than {@link #getCount()} to draw each segment
+     */
+    public void setMaxArcs(int maxArcs) {
+        int bucketCount = maxArcs > 0 && maxArcs < mCount ? maxArcs : 0;
+        if (bucketCount != mBucketCount) {
+            mBucketCount = bucketCount;
+            mBucketsDirty = true;
+        }
+    }
+
+    /**
+     * @return The number of buckets the segments are grouped into, 0 if each segment is drawn
+     */
+    public int getBucketCount() {
+        return mBucketCount;
+    }
+
+    /**
+     * Adds the reached and outline arcs of every segment, or of every bucket
+     * (see {@link #setMaxArcs(int)}), to the runs
+     *
+     * @param reachedRuns The runs of the reached arcs, reset first
+     * @param outlineRuns The runs of the outline arcs, reset first
+     */
+    public void buildRuns(ArcRuns reachedRuns, ArcRuns outlineRuns) {
+        reachedRuns.reset();
+        outlineRuns.reset();
+        if (mCount == 0) {
+            return;
+        }
+        if (mProgress < 0) {
+            //Every segment has the same arcs in counter clockwise
+            reachedRuns.add(getReachedStart(0), getReachedSweep(0));
+            outlineRuns.add(getOutlineStart(0), getOutlineSweep(0));
+        } else if (mBucketCount > 0) {
+            if (mBucketsDirty) {
+                calculateBuckets();
+            }
+            reachedRuns.ensureCapacity(mBucketCount);
+            outlineRuns.ensureCapacity(mBucketCount);
+            int first = 0;
+            for (int bucket = 0; bucket < mBucketCount; bucket++) {
+                int end = mBucketEnd[bucket];
+                float start = mPieceStart[first];
+                float reachedSweep = mBucketFilled[bucket] * mReachedSweep;
+                reachedRuns.add(start, reachedSweep);
+                outlineRuns.add((start + reachedSweep) % 360f, (end - first) * mPieceSweep - reachedSweep);
+                first = end;
+            }
+        } else {
+            reachedRuns.ensureCapacity(mCount);
+            outlineRuns.ensureCapacity(mCount);
+            for (int index = 0; index < mCount; index++) {
+                float start = mPieceStart[index];
+                float reachedSweep = isFilled(index) ? mReachedSweep : 0;
+                reachedRuns.add(start, reachedSweep);
+                outlineRuns.add((start + reachedSweep) % 360f, mPieceSweep - reachedSweep);
+            }
+        }
+        reachedRuns.close();
+        outlineRuns.close();
+    }
+
+    /**
+     * Splits the segments into {@link #mBucketCount} buckets of (nearly) equal size and counts their filled segments
+     */
+    private void calculateBuckets() {
+        if (mBucketEnd.length < mBucketCount) {
+            mBucketEnd = new int[mBucketCount];
+            mBucketFilled = new int[mBucketCount];
+        }
+        int first = 0;
+        for (int bucket = 0; bucket < mBucketCount; bucket++) {
+            int end = (int) ((long) mCount * (bucket + 1) / mBucketCount);
+            mBucketEnd[bucket] = end;
+            mBucketFilled[bucket] = countFilled(first, end);
+            first = end;
+        }
+        mBucketsDirty = false;
+    }
+
+    /**
+     * Counts the filled segments of a range a word at a time
+     *
+     * @param from The first segment
+     * @param to   The segment after the last one
+     * @return The number of filled segments
+     */
+    private int countFilled(int from, int to) {
+        int count = 0;
+        while (from < to) {
+            int bit = from & (Long.SIZE - 1);
+            int bits = Math.min(Long.SIZE - bit, to - from);
+            long mask = bits == Long.SIZE ? -1L : ((1L << bits) - 1) << bit;
+            count += Long.bitCount(mFilled[from >> 6] & mask);
+            from += bits;
+        }
+        return count;
+    }
+
+    /**
+     * Sets the number of segments, clearing every filled flag, and computes the start angles
+     * if the number changed. The arrays only grow.
+     *
+     * @param count The new number of segments
+     */
+    private void resize(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of segments can not be negative, got " + count);
+        }
+        int words = Math.max(1, (count + Long.SIZE - 1) / Long.SIZE);
+        if (mFilled.length < words) {
+            mFilled = new long[words];
+        } else {
+            for (int word = 0; word < mFilled.length; word++) {
+                mFilled[word] = 0;
+            }
+        }
+        if (count != mCount) {
+            if (mPieceStart.length < count) {
+                mPieceStart = new float[count];
+            }
+            mPieceSweep = 360f / count;
+            for (int index = 0; index < count; index++) {
+                mPieceStart[index] = (START_12 + (mPieceSweep * index)) % 360f;
+            }
+            mCount = count;
+            //The shared sweep depends on the number of segments
+            float progress = mProgress;
+            mProgress = Float.NaN;
+            updateAngles(progress, mMax);
+        }
+        mBucketCount = 0;
+        mBucketsDirty = true;
+    }
+
+    /**
+     * Sets the filled flag of a segment
+     */
+    private void set(int index, boolean filled) {
+        if (filled) {
+            mFilled[index >> 6] |= 1L << index;
+        } else {
+            mFilled[index >> 6] &= ~(1L << index);
+        }
+    }
+}
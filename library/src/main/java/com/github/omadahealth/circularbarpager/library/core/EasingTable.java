@@ -0,0 +1,189 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library.core;
+
+/**
+ * An easing curve sampled once into a lookup table. Evaluating it is a linear interpolation
+ * between two samples, with no call to the curve nor boxing on each frame.
+ * The slope is sampled as well, to start animations with a velocity, see {@link ProgressTween}.
+ */
+public class EasingTable {
+
+    /**
+     * An easing curve, mapping a fraction between 0 and 1 to a progress that is
+     * 0 at 0 and 1 at 1, and may go past them in between
+     */
+    public interface Curve {
+        float evaluate(float fraction);
+    }
+
+    /**
+     * The number of intervals between the samples of the common curves
+     */
+    public static final int DEFAULT_RESOLUTION = 256;
+
+    public static final EasingTable LINEAR = create(new Curve() {
+        @Override
+        public float evaluate(float t) {
+            return t;
+        }
+    }, 1);
+
+    public static final EasingTable QUAD_IN = create(new Curve() {
+        @Override
+        public float evaluate(float t) {
+            return t * t;
+        }
+    }, DEFAULT_RESOLUTION);
+
+    public static final EasingTable QUAD_OUT = create(new Curve() {
+        @Override
+        public float evaluate(float t) {
+            return t * (2 - t);
+        }
+    }, DEFAULT_RESOLUTION);
+
+    public static final EasingTable QUAD_IN_OUT = create(new Curve() {
+        @Override
+        public float evaluate(float t) {
+            if (t < 0.5f) {
+                return 2 * t * t;
+            }
+            return -1 + (4 - 2 * t) * t;
+        }
+    }, DEFAULT_RESOLUTION);
+
+    public static final EasingTable CUBIC_IN_OUT = create(new Curve() {
+        @Override
+        public float evaluate(float t) {
+            if (t < 0.5f) {
+                return 4 * t * t * t;
+            }
+            float f = 2 * t - 2;
+            return 1 + f * f * f / 2;
+        }
+    }, DEFAULT_RESOLUTION);
+
+    public static final EasingTable SINE_IN_OUT = create(new Curve() {
+        @Override
+        public float evaluate(float t) {
+            return (float) (1 - Math.cos(Math.PI * t)) / 2;
+        }
+    }, DEFAULT_RESOLUTION);
+
+    public static final EasingTable BACK_OUT = create(new Curve() {
+        @Override
+        public float evaluate(float t) {
+            float s = 1.70158f;
+            float f = t - 1;
+            return f * f * ((s + 1) * f + s) + 1;
+        }
+    }, DEFAULT_RESOLUTION);
+
+    /**
+     * The step used to sample the slopes of the curve
+     */
+    private static final float SLOPE_STEP = 1e-4f;
+
+    /**
+     * The curve at each sample, resolution + 1 of them
+     */
+    private final float[] mValues;
+
+    /**
+     * The slope of the curve at each sample
+     */
+    private final float[] mSlopes;
+
+    /**
+     * The number of intervals between the samples
+     */
+    private final int mResolution;
+
+    private EasingTable(float[] values, float[] slopes) {
+        mValues = values;
+        mSlopes = slopes;
+        mResolution = values.length - 1;
+    }
+
+    /**
+     * Samples a curve
+     *
+     * @param curve      The curve
+     * @param resolution The number of intervals between the samples, the memory used is 8 bytes per interval
+     * @return The table of the curve
+     */
+    public static EasingTable create(Curve curve, int resolution) {
+        if (resolution < 1) {
+            throw new IllegalArgumentException("The resolution must be at least 1, was " + resolution);
+        }
+        float[] values = new float[resolution + 1];
+        float[] slopes = new float[resolution + 1];
+        for (int index = 0; index <= resolution; index++) {
+            float t = (float) index / resolution;
+            values[index] = curve.evaluate(t);
+            //One sided at the ends, the curve may not be defined outside of [0, 1]
+            float before = Math.max(0, t - SLOPE_STEP);
+            float after = Math.min(1, t + SLOPE_STEP);
+            slopes[index] = (curve.evaluate(after) - curve.evaluate(before)) / (after - before);
+        }
+        return new EasingTable(values, slopes);
+    }
+
+    /**
+     * @param fraction The fraction of the animation, clamped between 0 and 1
+     * @return The eased fraction
+     */
+    public float getValue(float fraction) {
+        return interpolate(mValues, fraction);
+    }
+
+    /**
+     * @param fraction The fraction of the animation, clamped between 0 and 1
+     * @return The derivative of the eased fraction
+     */
+    public float getSlope(float fraction) {
+        return interpolate(mSlopes, fraction);
+    }
+
+    /**
+     * @return The number of intervals between the samples
+     */
+    public int getResolution() {
+        return mResolution;
+    }
+
+    private float interpolate(float[] samples, float fraction) {
+        if (!(fraction > 0)) {
+            return samples[0];
+        }
+        if (fraction >= 1) {
+            return samples[mResolution];
+        }
+        float position = fraction * mResolution;
+        int index = (int) position;
+        float weight = position - index;
+        return samples[index] + (samples[index + 1] - samples[index]) * weight;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library.core;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formats progress values as integer or fixed decimal numbers into a caller supplied char[],
+ * so that a label can be drawn with Canvas.drawText(char[], ...) on every animation frame without
+ * creating a String. The rounding mode and the digits, decimal separator and minus sign of a locale
+ * are resolved when they are set, formatting itself never allocates.
+ * Values are first rounded to a {@code long} number of units of the last decimal, with {@link #round(float)},
+ * so that a caller can skip formatting when that number did not change.
+ */
+public class ProgressFormatter {
+
+    /**
+     * The maximum number of decimals
+     */
+    public static final int MAX_DECIMALS = 6;
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000};
+
+    private int mDecimals;
+    private RoundingMode mRoundingMode = RoundingMode.HALF_UP;
+    private char mZeroDigit = '0';
+    private char mDecimalSeparator = '.';
+    private char mMinusSign = '-';
+
+    /**
+     * Sets the number of decimals, 0 to format integers
+     *
+     * @param decimals The number of decimals, from 0 to {@link #MAX_DECIMALS}
+     */
+    public void setDecimals(int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("decimals must be between 0 and " + MAX_DECIMALS + ": " + decimals);
+        }
+        mDecimals = decimals;
+    }
+
+    public int getDecimals() {
+        return mDecimals;
+    }
+
+    /**
+     * Sets how values are rounded to the last decimal, {@link RoundingMode#HALF_UP} by default
+     *
+     * @param roundingMode Any rounding mode but {@link RoundingMode#UNNECESSARY}
+     */
+    public void setRoundingMode(RoundingMode roundingMode) {
+        if (roundingMode == null || roundingMode == RoundingMode.UNNECESSARY) {
+            throw new IllegalArgumentException("Unsupported rounding mode: " + roundingMode);
+        }
+        mRoundingMode = roundingMode;
+    }
+
+    public RoundingMode getRoundingMode() {
+        return mRoundingMode;
+    }
+
+    /**
+     * Uses the digits, decimal separator and minus sign of a locale, eg. Arabic-Indic digits for "ar-EG".
+     * The default is ASCII digits, '.' and '-'.
+     *
+     * @param locale The locale
+     */
+    public void setLocale(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        setSymbols(symbols.getZeroDigit(), symbols.getDecimalSeparator(), symbols.getMinusSign());
+    }
+
+    /**
+     * Sets the characters used to write numbers
+     *
+     * @param zeroDigit        The digit 0, the following nine characters are the digits 1 to 9
+     * @param decimalSeparator The decimal separator
+     * @param minusSign        The minus sign
+     */
+    public void setSymbols(char zeroDigit, char decimalSeparator, char minusSign) {
+        mZeroDigit = zeroDigit;
+        mDecimalSeparator = decimalSeparator;
+        mMinusSign = minusSign;
+    }
+
+    /**
+     * Rounds a value to a number of units of the last decimal, eg. 42.37 is 424 with 1 decimal.
+     * A float is treated as the shortest decimal that reads back as itself: 0.35f is a tie
+     * even though it is slightly under 0.35.
+     *
+     * @param value The value
+     * @return The rounded value, in units of the last decimal
+     */
+    public long round(float value) {
+        double scaled = (double) value * POWERS_OF_TEN[mDecimals];
+        double magnitude = Math.abs(scaled);
+        double floor = Math.floor(magnitude);
+        double fraction = magnitude - floor;
+        double tolerance = Math.ulp(Math.abs(value)) * POWERS_OF_TEN[mDecimals];
+        boolean negative = scaled < 0;
+        boolean exact = fraction <= tolerance || 1 - fraction <= tolerance;
+        boolean tie = Math.abs(fraction - 0.5) <= tolerance;
+        double rounded;
+        if (exact) {
+            rounded = Math.rint(magnitude);
+        } else {
+            boolean up;
+            switch (mRoundingMode) {
+                case UP:
+                    up = true;
+                    break;
+                case DOWN:
+                    up = false;
+                    break;
+                case CEILING:
+                    up = !negative;
+                    break;
+                case FLOOR:
+                    up = negative;
+                    break;
+                case HALF_DOWN:
+                    up = !tie && fraction > 0.5;
+                    break;
+                case HALF_EVEN:
+                    up = tie ? floor % 2 != 0 : fraction > 0.5;
+                    break;
+                case HALF_UP:
+                default:
+                    up = tie || fraction > 0.5;
+                    break;
+            }
+            rounded = up ? floor + 1 : floor;
+        }
+        long units = (long) Math.min(rounded, Long.MAX_VALUE);
+        return negative ? -units : units;
+    }
+
+    /**
+     * @param units A value in units of the last decimal, see {@link #round(float)}
+     * @return The number of characters of the formatted value
+     */
+    public int getLength(long units) {
+        int length = units < 0 ? 1 : 0;
+        if (mDecimals > 0) {
+            length++;
+        }
+        int digits = 1;
+        long remaining = Math.abs(units);
+        while (remaining >= 10) {
+            remaining /= 10;
+            digits++;
+        }
+        return length + Math.max(digits, mDecimals + 1);
+    }
+
+    /**
+     * Writes a value
+     *
+     * @param units  A value in units of the last decimal, see {@link #round(float)}
+     * @param out    The characters to write into, with at least {@link #getLength(long)} characters from offset
+     * @param offset The index of the first character to write
+     * @return The number of characters written
+     */
+    public int write(long units, char[] out, int offset) {
+        int length = getLength(units);
+        int index = offset + length;
+        long remaining = Math.abs(units);
+        for (int decimal = 0; decimal < mDecimals; decimal++) {
+            out[--index] = (char) (mZeroDigit + remaining % 10);
+            remaining /= 10;
+        }
+        if (mDecimals > 0) {
+            out[--index] = mDecimalSeparator;
+        }
+        do {
+            out[--index] = (char) (mZeroDigit + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (units < 0) {
+            out[--index] = mMinusSign;
+        }
+        return length;
+    }
+
+    /**
+     * Rounds then writes a value
+     *
+     * @param value  The value
+     * @param out    The characters to write into
+     * @param offset The index of the first character to write
+     * @return The number of characters written
+     */
+    public int format(float value, char[] out, int offset) {
+        return write(round(value), out, offset);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library.core;
+
+/**
+ * The progress of an animation as a function of its linear fraction, eased in and out between
+ * a start and an end value. The animation can start with a velocity, so that a running animation
+ * can be retargeted without a visible jump or stop: the curve leaves the start value with that
+ * velocity and still reaches the end value as the easing does.
+ * <p>
+ * progress(t) = start + (end - start) * ease(t) + startVelocity * duration * h(t)
+ * <p>
+ * where ease is an {@link EasingTable}, {@link EasingTable#QUAD_IN_OUT} by default, and h the cubic
+ * Hermite basis t^3 - 2t^2 + t, that is 0 at both ends, with a slope of 1 at 0 and of 0 at 1.
+ */
+public class ProgressTween {
+
+    /**
+     * The easing from the start to the end value
+     */
+    private EasingTable mEasing = EasingTable.QUAD_IN_OUT;
+
+    /**
+     * The value at fraction 0
+     */
+    private float mStart;
+
+    /**
+     * The value at fraction 1
+     */
+    private float mEnd;
+
+    /**
+     * The velocity at fraction 0, in progress per fraction
+     */
+    private float mStartSlope;
+
+    /**
+     * Sets the curve
+     *
+     * @param start         The value at the start of the animation
+     * @param end           The value at the end of the animation
+     * @param startVelocity The velocity at the start of the animation, in progress per millisecond
+     * @param duration      The duration of the animation, in milliseconds
+     */
+    public void set(float start, float end, float startVelocity, long duration) {
+        mStart = start;
+        mEnd = end;
+        mStartSlope = startVelocity * duration;
+    }
+
+    /**
+     * Sets the easing from the start to the end value
+     *
+     * @param easing The easing, not null
+     */
+    public void setEasing(EasingTable easing) {
+        mEasing = easing;
+    }
+
+    /**
+     * @return The easing from the start to the end value
+     */
+    public EasingTable getEasing() {
+        return mEasing;
+    }
+
+    /**
+     * @return The value at the start of the animation
+     */
+    public float getStart() {
+        return mStart;
+    }
+
+    /**
+     * @return The value at the end of the animation
+     */
+    public float getEnd() {
+        return mEnd;
+    }
+
+    /**
+     * @param fraction The linear fraction of the animation, between 0 and 1
+     * @return The progress at the fraction
+     */
+    public float getValue(float fraction) {
+        float t = clamp(fraction);
+        return mStart + (mEnd - mStart) * mEasing.getValue(t) + mStartSlope * (t * t * t - 2 * t * t + t);
+    }
+
+    /**
+     * @param fraction The linear fraction of the animation, between 0 and 1
+     * @param duration The duration of the animation, in milliseconds
+     * @return The velocity at the fraction, in progress per millisecond
+     */
+    public float getVelocity(float fraction, long duration) {
+        if (duration <= 0) {
+            return 0;
+        }
+        float t = clamp(fraction);
+        float slope = (mEnd - mStart) * mEasing.getSlope(t) + mStartSlope * (3 * t * t - 4 * t + 1);
+        return slope / duration;
+    }
+
+    private static float clamp(float fraction) {
+        return fraction < 0 ? 0 : fraction > 1 ? 1 : fraction;
+    }
+}
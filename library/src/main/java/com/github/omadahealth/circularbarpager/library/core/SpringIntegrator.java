@@ -0,0 +1,162 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library.core;
+
+/**
+ * A damped spring pulling a position toward a target, integrated over the real time elapsed
+ * between two frames. Long frames are split into small fixed steps, so a dropped frame moves the
+ * position further along the same path instead of making it jump or diverge.
+ * Once close enough to the target and slow enough, the position is snapped exactly onto
+ * the target and the spring is at rest.
+ */
+public class SpringIntegrator {
+
+    /**
+     * A stiffness giving a quick response, in 1/s^2
+     */
+    public static final float STIFFNESS_MEDIUM = 200f;
+
+    /**
+     * No oscillation, the fastest return to the target without going past it
+     */
+    public static final float DAMPING_RATIO_CRITICAL = 1f;
+
+    /**
+     * The longest integration step, in seconds
+     */
+    private static final float MAX_STEP = 0.004f;
+
+    /**
+     * The longest frame integrated, in seconds. Longer frames, eg. after the app was paused,
+     * are integrated as this long to bound the work done
+     */
+    private static final float MAX_FRAME = 1f;
+
+    private float mPosition;
+    private float mVelocity;
+    private float mTarget;
+    private float mStiffness = STIFFNESS_MEDIUM;
+    private float mDampingRatio = DAMPING_RATIO_CRITICAL;
+
+    /**
+     * The distance to the target below which the spring can come to rest
+     */
+    private float mPositionThreshold = 0.01f;
+
+    /**
+     * The speed, in units per second, below which the spring can come to rest
+     */
+    private float mVelocityThreshold = 0.1f;
+
+    /**
+     * @param stiffness    The stiffness of the spring in 1/s^2, higher is faster
+     * @param dampingRatio The damping ratio, 1 for no oscillation, lower to bounce around the target
+     */
+    public void setSpring(float stiffness, float dampingRatio) {
+        if (stiffness <= 0 || dampingRatio < 0) {
+            throw new IllegalArgumentException("The stiffness must be positive and the damping ratio not negative");
+        }
+        mStiffness = stiffness;
+        mDampingRatio = dampingRatio;
+    }
+
+    /**
+     * @param positionThreshold The distance to the target below which the spring can come to rest
+     * @param velocityThreshold The speed, in units per second, below which the spring can come to rest
+     */
+    public void setRestThresholds(float positionThreshold, float velocityThreshold) {
+        mPositionThreshold = positionThreshold;
+        mVelocityThreshold = velocityThreshold;
+    }
+
+    /**
+     * Sets the state of the spring, eg. to start from the current value of an animation
+     *
+     * @param position The position
+     * @param velocity The velocity, in units per second
+     */
+    public void setState(float position, float velocity) {
+        mPosition = position;
+        mVelocity = velocity;
+    }
+
+    public void setTarget(float target) {
+        mTarget = target;
+    }
+
+    public float getTarget() {
+        return mTarget;
+    }
+
+    public float getPosition() {
+        return mPosition;
+    }
+
+    /**
+     * @return The velocity, in units per second
+     */
+    public float getVelocity() {
+        return mVelocity;
+    }
+
+    public float getStiffness() {
+        return mStiffness;
+    }
+
+    public float getDampingRatio() {
+        return mDampingRatio;
+    }
+
+    /**
+     * @return True if the position is on the target and the velocity 0
+     */
+    public boolean isAtRest() {
+        return mPosition == mTarget && mVelocity == 0;
+    }
+
+    /**
+     * Moves the spring forward in time
+     *
+     * @param elapsedMillis The time since the last frame, in milliseconds
+     * @return True if the spring is still moving, false once it came to rest on the target
+     */
+    public boolean advance(long elapsedMillis) {
+        float remaining = Math.min(MAX_FRAME, Math.max(0, elapsedMillis) / 1000f);
+        float damping = 2 * mDampingRatio * (float) Math.sqrt(mStiffness);
+        while (remaining > 0) {
+            float step = Math.min(MAX_STEP, remaining);
+            //Semi-implicit Euler, stable for a stiff spring with a small step
+            float acceleration = -mStiffness * (mPosition - mTarget) - damping * mVelocity;
+            mVelocity += acceleration * step;
+            mPosition += mVelocity * step;
+            remaining -= step;
+        }
+        if (Math.abs(mPosition - mTarget) < mPositionThreshold && Math.abs(mVelocity) < mVelocityThreshold) {
+            mPosition = mTarget;
+            mVelocity = 0;
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Omada Health, Inc
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.github.omadahealth.circularbarpager.library.core;
+
+/**
+ * A histogram of durations in nanoseconds with fixed, power of two buckets. Recording a
+ * sample is a few arithmetic operations on a preallocated array, it never allocates.
+ * Bucket i holds the durations in [2^(i + MIN_SHIFT - 1), 2^(i + MIN_SHIFT)), the first one
+ * everything under 2^MIN_SHIFT ns (1 us) and the last one everything from 2^(MAX_SHIFT - 1) ns (~0.5 s).
+ * Percentiles are therefore exact within a factor of 2.
+ */
+public class TimingHistogram {
+
+    /**
+     * The log2 of the upper bound of the first bucket, 1024 ns
+     */
+    private static final int MIN_SHIFT = 10;
+
+    /**
+     * The log2 of the upper bound of the last bounded bucket, about 0.5 s
+     */
+    private static final int MAX_SHIFT = 29;
+
+    /**
+     * The number of buckets
+     */
+    public static final int BUCKET_COUNT = MAX_SHIFT - MIN_SHIFT + 2;
+
+    private final long[] mCounts = new long[BUCKET_COUNT];
+    private long mCount;
+    private long mTotal;
+    private long mMin = Long.MAX_VALUE;
+    private long mMax;
+
+    /**
+     * Adds a duration
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        mCounts[getBucket(nanos)]++;
+        mCount++;
+        mTotal += nanos;
+        if (nanos < mMin) {
+            mMin = nanos;
+        }
+        if (nanos > mMax) {
+            mMax = nanos;
+        }
+    }
+
+    /**
+     * @param nanos A duration in nanoseconds, not negative
+     * @return The index of the bucket of the duration
+     */
+    static int getBucket(long nanos) {
+        int shift = 64 - Long.numberOfLeadingZeros(nanos);
+        if (shift <= MIN_SHIFT) {
+            return 0;
+        }
+        return Math.min(BUCKET_COUNT - 1, shift - MIN_SHIFT);
+    }
+
+    /**
+     * @param bucket The index of the bucket
+     * @return The exclusive upper bound of the bucket in nanoseconds, {@link Long#MAX_VALUE} for the last one
+     */
+    public static long getBucketUpperBound(int bucket) {
+        if (bucket >= BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        return 1L << (bucket + MIN_SHIFT);
+    }
+
+    /**
+     * @param bucket The index of the bucket
+     * @return The number of durations in the bucket
+     */
+    public long getBucketCount(int bucket) {
+        return mCounts[bucket];
+    }
+
+    /**
+     * @return The number of durations recorded
+     */
+    public long getCount() {
+        return mCount;
+    }
+
+    /**
+     * @return The sum of the durations in nanoseconds
+     */
+    public long getTotal() {
+        return mTotal;
+    }
+
+    /**
+     * @return The mean duration in nanoseconds, 0 if empty
+     */
+    public long getMean() {
+        return mCount == 0 ? 0 : mTotal / mCount;
+    }
+
+    /**
+     * @return The shortest duration in nanoseconds, 0 if empty
+     */
+    public long getMin() {
+        return mCount == 0 ? 0 : mMin;
+    }
+
+    /**
+     * @return The longest duration in nanoseconds
+     */
+    public long getMax() {
+        return mMax;
+    }
+
+    /**
+     * An upper bound of the percentile: the upper bound of the bucket it falls into,
+     * capped by the longest duration
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The duration in nanoseconds, 0 if empty
+     */
+    public long getPercentile(double percentile) {
+        if (mCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * mCount);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += mCounts[bucket];
+            if (seen >= rank) {
+                return Math.min(mMax, getBucketUpperBound(bucket));
+            }
+        }
+        return mMax;
+    }
+
+    /**
+     * Copies this histogram into another one, without allocating
+     *
+     * @param target The histogram to overwrite
+     */
+    public void copyTo(TimingHistogram target) {
+        System.arraycopy(mCounts, 0, target.mCounts, 0, BUCKET_COUNT);
+        target.mCount = mCount;
+        target.mTotal = mTotal;
+        target.mMin = mMin;
+        target.mMax = mMax;
+    }
+
+    /**
+     * Removes every duration
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            mCounts[bucket] = 0;
+        }
+        mCount = 0;
+        mTotal = 0;
+        mMin = Long.MAX_VALUE;
+        mMax = 0;
+    }
+}
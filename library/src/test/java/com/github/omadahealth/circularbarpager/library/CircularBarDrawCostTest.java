@@ -0,0 +1,243 @@
+package com.github.omadahealth.circularbarpager.library;
+
+import android.view.animation.AnimationUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Renders {@link CircularBar} in each mode and checks upper bounds on the draw operations
+ * and paint switches of a frame, so that a change multiplying them fails the build.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CircularBarDrawCostTest {
+
+    private static final int SIZE = 200;
+
+    private CircularBar mCircularBar;
+
+    private RecordingCanvas mCanvas;
+
+    @Before
+    public void setUp() {
+        mCircularBar = new CircularBar(RuntimeEnvironment.application);
+        mCircularBar.setStartLineEnabled(true);
+        mCircularBar.layout(0, 0, SIZE, SIZE);
+        mCanvas = new RecordingCanvas();
+    }
+
+    private void drawFrame() {
+        mCanvas.reset();
+        mCircularBar.onDraw(mCanvas);
+    }
+
+    @Test
+    public void defaultFill() {
+        mCircularBar.setCircleFillColor(0xff00ff00);
+        mCircularBar.setCirclePieceFill(1, 1L);
+        mCircularBar.setProgress(42);
+        drawFrame();
+        //Fill, outline, reached and the start line
+        assertTrue(mCanvas.getArcCount() <= 3);
+        assertEquals(1, mCanvas.getLineCount());
+        assertEquals(0, mCanvas.getPathCount());
+        assertTrue(mCanvas.getPaintSwitchCount() <= 4);
+    }
+
+    @Test
+    public void pieFill() {
+        mCircularBar.setCircleFillColor(0xff00ff00);
+        mCircularBar.setCircleFillMode(CircularBar.CircleFillMode.PIE);
+        mCircularBar.setCirclePieceFill(1, 1L);
+        mCircularBar.setProgress(42);
+        drawFrame();
+        assertTrue(mCanvas.getArcCount() <= 3);
+        assertTrue(mCanvas.getDrawCount() <= 4);
+        assertTrue(mCanvas.getPaintSwitchCount() <= 4);
+    }
+
+    @Test
+    public void outlineOnly() {
+        mCircularBar.setCirclePieceFill(1, 1L);
+        mCircularBar.setProgress(0);
+        drawFrame();
+        assertTrue(mCanvas.getArcCount() <= 1);
+        assertTrue(mCanvas.getDrawCount() <= 2);
+        assertTrue(mCanvas.getPaintSwitchCount() <= 1);
+    }
+
+    @Test
+    public void counterClockwise() {
+        mCircularBar.setCirclePieceFill(1, 1L);
+        mCircularBar.setProgress(-30);
+        drawFrame();
+        assertTrue(mCanvas.getArcCount() <= 2);
+        assertTrue(mCanvas.getDrawCount() <= 3);
+        assertTrue(mCanvas.getPaintSwitchCount() <= 3);
+    }
+
+    @Test
+    public void staticLayerFrameIsABlitAndTheReachedArcs() {
+        mCircularBar.setStaticLayerCacheEnabled(true);
+        mCircularBar.setStartLineEnabled(false);
+        mCircularBar.setCircleFillColor(0xff00ff00);
+        mCircularBar.setCirclePieceFill(new boolean[]{true, false, true, false});
+        mCircularBar.setProgress(42);
+        drawFrame();
+        drawFrame();
+        //One reached arc per filled segment on top of the cached fill and outline
+        assertEquals(1, mCanvas.getBitmapCount());
+        assertEquals(2, mCanvas.getArcCount());
+        assertEquals(3, mCanvas.getDrawCount());
+    }
+
+    @Test
+    public void staticLayerRebuiltOnSizeColorAndSegments() {
+        mCircularBar.setStaticLayerCacheEnabled(true);
+        mCircularBar.setCirclePieceFill(1, 1L);
+        mCircularBar.setProgress(42);
+        drawFrame();
+        assertFalse(mCircularBar.mStaticLayerDirty);
+        mCircularBar.setProgress(50);
+        assertFalse(mCircularBar.mStaticLayerDirty);
+
+        mCircularBar.layout(0, 0, SIZE / 2, SIZE / 2);
+        assertTrue(mCircularBar.mStaticLayerDirty);
+        drawFrame();
+        assertFalse(mCircularBar.mStaticLayerDirty);
+
+        mCircularBar.setClockwiseOutlineArcColor(0xffff0000);
+        assertTrue(mCircularBar.mStaticLayerDirty);
+        drawFrame();
+
+        mCircularBar.setCirclePieceFill(3, 5L);
+        assertTrue(mCircularBar.mStaticLayerDirty);
+    }
+
+    @Test
+    public void animatedProgressDrawsTheReachedArc() {
+        //As inflated from XML, the bar holds a single unfilled segment
+        mCircularBar.setProgress(0);
+        drawFrame();
+        assertTrue(mCanvas.getArcCount() <= 1);
+
+        mCircularBar.setSharedClockEnabled(true);
+        mCircularBar.animateProgressTo(80, 300);
+        mCircularBar.onClockFrame(AnimationUtils.currentAnimationTimeMillis() + 300);
+        assertEquals(80f, mCircularBar.getProgress(), 0.01f);
+        drawFrame();
+        //The reached arc on top of the outline
+        assertTrue(mCanvas.getArcCount() >= 2);
+    }
+
+    @Test
+    public void springProgressDrawsTheReachedArc() {
+        //As inflated from XML, the bar holds a single unfilled segment
+        mCircularBar.setProgress(0);
+        mCircularBar.setSharedClockEnabled(true);
+        mCircularBar.springProgressTo(80, 0);
+        long frameTime = AnimationUtils.currentAnimationTimeMillis();
+        for (int frame = 0; frame < 1000 && mCircularBar.onClockFrame(frameTime); frame++) {
+            frameTime += 16;
+        }
+        assertEquals(80f, mCircularBar.getProgress(), 0.5f);
+        drawFrame();
+        //The reached arc on top of the outline
+        assertTrue(mCanvas.getArcCount() >= 2);
+    }
+
+    @Test
+    public void label() {
+        mCircularBar.setCirclePieceFill(1, 1L);
+        mCircularBar.setLabelEnabled(true);
+        mCircularBar.setProgress(42);
+        drawFrame();
+        //A single text run for the prefix, value and suffix
+        assertEquals(1, mCanvas.getTextCount());
+        assertTrue(mCanvas.getDrawCount() <= 4);
+    }
+
+    @Test
+    public void staticLayerCache() {
+        mCircularBar.setStaticLayerCacheEnabled(true);
+        mCircularBar.setCircleFillColor(0xff00ff00);
+        mCircularBar.setCirclePieceFill(1, 1L);
+        mCircularBar.setProgress(42);
+        drawFrame();
+        drawFrame();
+        //The fill and outline come from the cached bitmap
+        assertTrue(mCanvas.getArcCount() <= 1);
+        assertTrue(mCanvas.getBitmapCount() <= 1);
+    }
+
+    @Test
+    public void rings() {
+        mCircularBar.setCirclePieceFill(1, 1L);
+        mCircularBar.setProgress(42);
+        CircularBarStyle style = mCircularBar.getBarStyle();
+        for (int index = 0; index < 3; index++) {
+            mCircularBar.setRingProgress(mCircularBar.addRing(style), 20 * index);
+        }
+        drawFrame();
+        //The bar, then an outline and a reached arc per ring, the empty one has no reached arc
+        assertTrue(mCanvas.getArcCount() <= 2 + 2 * 3 - 1);
+        assertEquals(1, mCanvas.getLineCount());
+    }
+
+    @Test
+    public void renderCache() {
+        mCircularBar.setRenderCache(new CircularBarRenderCache(4 * 1024 * 1024));
+        mCircularBar.setCirclePieceFill(1, 1L);
+        mCircularBar.setProgress(42);
+        drawFrame();
+        //A single blit of the cached render
+        assertEquals(0, mCanvas.getArcCount());
+        assertEquals(1, mCanvas.getBitmapCount());
+        assertEquals(1, mCanvas.getDrawCount());
+    }
+
+    @Test
+    public void segmentsAreMergedIntoRuns() {
+        int count = 365;
+        boolean[] pieces = new boolean[count];
+        for (int index = 0; index < count; index++) {
+            pieces[index] = index % 2 == 0;
+        }
+        mCircularBar.setCirclePieceFill(pieces);
+        mCircularBar.setProgress(42);
+        drawFrame();
+        //At most one reached and one outline arc per segment, never 3N
+        assertTrue(mCanvas.getArcCount() <= 2 * count);
+        assertTrue(mCanvas.getPaintSwitchCount() <= 2 * count + 1);
+    }
+
+    @Test
+    public void emptySegmentsAreASingleRing() {
+        mCircularBar.setCirclePieceFill(new boolean[365]);
+        mCircularBar.setProgress(42);
+        drawFrame();
+        assertTrue(mCanvas.getArcCount() <= 1);
+    }
+
+    @Test
+    public void levelOfDetailBoundsTheArcs() {
+        int count = 10000;
+        boolean[] pieces = new boolean[count];
+        for (int index = 0; index < count; index++) {
+            pieces[index] = index % 2 == 0;
+        }
+        mCircularBar.setLevelOfDetailThreshold(4);
+        mCircularBar.setCirclePieceFill(pieces);
+        mCircularBar.setProgress(42);
+        drawFrame();
+        int maxArcs = (int) (Math.PI * SIZE / 4);
+        assertTrue(mCanvas.getArcCount() <= 2 * maxArcs + 1);
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.omadahealth.circularbarpager.library;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+/**
+ * A {@link Canvas} that draws nothing and counts the draw operations it receives,
+ * and how many times the paint changes between two of them.
+ */
+public class RecordingCanvas extends Canvas {
+
+    private int mArcCount;
+    private int mLineCount;
+    private int mPathCount;
+    private int mBitmapCount;
+    private int mTextCount;
+    private int mPaintSwitchCount;
+    private Paint mLastPaint;
+
+    private void record(Paint paint) {
+        if (paint != mLastPaint) {
+            mPaintSwitchCount++;
+            mLastPaint = paint;
+        }
+    }
+
+    @Override
+    public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+        mArcCount++;
+        record(paint);
+    }
+
+    @Override
+    public void drawArc(float left, float top, float right, float bottom, float startAngle, float sweepAngle,
+                        boolean useCenter, Paint paint) {
+        mArcCount++;
+        record(paint);
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        mLineCount++;
+        record(paint);
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        mPathCount++;
+        record(paint);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        mBitmapCount++;
+        record(paint);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        mTextCount++;
+        record(paint);
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        mTextCount++;
+        record(paint);
+    }
+
+    /**
+     * Clears the counts, to record the next frame
+     */
+    public void reset() {
+        mArcCount = 0;
+        mLineCount = 0;
+        mPathCount = 0;
+        mBitmapCount = 0;
+        mTextCount = 0;
+        mPaintSwitchCount = 0;
+        mLastPaint = null;
+    }
+
+    public int getArcCount() {
+        return mArcCount;
+    }
+
+    public int getLineCount() {
+        return mLineCount;
+    }
+
+    public int getPathCount() {
+        return mPathCount;
+    }
+
+    public int getBitmapCount() {
+        return mBitmapCount;
+    }
+
+    public int getTextCount() {
+        return mTextCount;
+    }
+
+    /**
+     * @return The number of draw operations
+     */
+    public int getDrawCount() {
+        return mArcCount + mLineCount + mPathCount + mBitmapCount + mTextCount;
+    }
+
+    /**
+     * @return The number of times a draw operation used another paint than the previous one
+     */
+    public int getPaintSwitchCount() {
+        return mPaintSwitchCount;
+    }
+}
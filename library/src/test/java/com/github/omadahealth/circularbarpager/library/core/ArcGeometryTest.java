@@ -0,0 +1,28 @@
+package com.github.omadahealth.circularbarpager.library.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArcGeometryTest {
+
+    private static final float DELTA = 0.001f;
+
+    @Test
+    public void rectIsTheLargestSquareInset() {
+        float[] rect = new float[4];
+        float diameter = ArcGeometry.getArcRect(200, 300, 0, 0, 0, 0, 5, rect);
+        assertEquals(190f, diameter, DELTA);
+        assertEquals(5f, rect[ArcGeometry.LEFT], DELTA);
+        assertEquals(195f, rect[ArcGeometry.RIGHT], DELTA);
+        assertEquals(rect[ArcGeometry.RIGHT] - rect[ArcGeometry.LEFT], rect[ArcGeometry.BOTTOM] - rect[ArcGeometry.TOP], DELTA);
+    }
+
+    @Test
+    public void paddingShrinksTheCircle() {
+        float[] rect = new float[4];
+        float diameter = ArcGeometry.getArcRect(200, 200, 10, 10, 10, 10, 0, rect);
+        assertEquals(180f, diameter, DELTA);
+        assertEquals(180f, rect[ArcGeometry.RIGHT] - rect[ArcGeometry.LEFT], DELTA);
+    }
+}
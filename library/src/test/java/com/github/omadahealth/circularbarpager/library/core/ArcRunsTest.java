@@ -0,0 +1,97 @@
+package com.github.omadahealth.circularbarpager.library.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArcRunsTest {
+
+    private static final float DELTA = 0.01f;
+
+    @Test
+    public void contiguousArcsAreMerged() {
+        ArcRuns runs = new ArcRuns();
+        runs.add(270f, 45f);
+        runs.add(315f, 45f);
+        runs.add(0f, 90f);
+        runs.add(180f, 10f);
+        assertEquals(2, runs.size());
+        assertEquals(270f, runs.getStart(0), DELTA);
+        assertEquals(180f, runs.getSweep(0), DELTA);
+    }
+
+    @Test
+    public void closeMergesAroundTheCircle() {
+        ArcRuns runs = new ArcRuns();
+        runs.add(0f, 90f);
+        runs.add(180f, 90f);
+        runs.add(270f, 90f);
+        assertEquals(2, runs.size());
+        runs.close();
+        assertEquals(1, runs.size());
+        assertEquals(180f, runs.getStart(0), DELTA);
+        assertEquals(270f, runs.getSweep(0), DELTA);
+    }
+
+    @Test
+    public void runsScaleWithStateTransitions() {
+        int count = 1000;
+        boolean[] pieces = new boolean[count];
+        for (int index = 0; index < count / 2; index++) {
+            pieces[index] = true;
+        }
+        ArcSegments segments = new ArcSegments();
+        segments.setFilled(pieces);
+        segments.updateAngles(0, 100);
+
+        ArcRuns reached = new ArcRuns();
+        ArcRuns outline = new ArcRuns();
+        segments.buildRuns(reached, outline);
+        assertEquals(0, reached.size());
+        assertEquals(1, outline.size());
+        assertEquals(360f, outline.getSweep(0), DELTA);
+
+        segments.updateAngles(99.99f, 100);
+        segments.roundSweeps();
+        segments.buildRuns(reached, outline);
+        assertEquals(1, reached.size());
+        assertEquals(180f, reached.getSweep(0), DELTA);
+        assertEquals(1, outline.size());
+    }
+
+    @Test
+    public void bucketsBoundTheNumberOfRuns() {
+        int count = 10000;
+        boolean[] pieces = new boolean[count];
+        for (int index = 0; index < count; index += 2) {
+            pieces[index] = true;
+        }
+        ArcSegments segments = new ArcSegments();
+        segments.setFilled(pieces);
+        segments.setMaxArcs(100);
+        segments.updateAngles(50, 100);
+
+        ArcRuns reached = new ArcRuns();
+        ArcRuns outline = new ArcRuns();
+        segments.buildRuns(reached, outline);
+        assertEquals(100, segments.getBucketCount());
+        assertEquals(100, reached.size());
+        assertEquals(100, outline.size());
+
+        float total = 0;
+        for (int index = 0; index < reached.size(); index++) {
+            total += reached.getSweep(index);
+        }
+        //Half the segments filled at half progress
+        assertEquals(90f, total, 0.1f);
+    }
+
+    @Test
+    public void emptyAndRepeatedArcsAreSkipped() {
+        ArcRuns runs = new ArcRuns();
+        runs.add(10f, 0f);
+        runs.add(20f, 30f);
+        runs.add(20f, 30f);
+        assertEquals(1, runs.size());
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.omadahealth.circularbarpager.library.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArcSegmentsTest {
+
+    private static final float DELTA = 0.001f;
+
+    @Test
+    public void inputsAreEquivalent() {
+        boolean[] pieces = {true, false, true, true, false};
+        BitSet bitSet = new BitSet();
+        bitSet.set(0);
+        bitSet.set(2);
+        bitSet.set(3);
+
+        ArcSegments fromArray = new ArcSegments();
+        fromArray.setFilled(pieces);
+        ArcSegments fromList = new ArcSegments();
+        fromList.setFilled(Arrays.asList(true, false, true, true, false));
+        ArcSegments fromBitSet = new ArcSegments();
+        fromBitSet.setFilled(bitSet, pieces.length);
+        ArcSegments fromMask = new ArcSegments();
+        fromMask.setFilled(pieces.length, 0b01101L);
+
+        for (int index = 0; index < pieces.length; index++) {
+            assertEquals(pieces[index], fromArray.isFilled(index));
+            assertEquals(pieces[index], fromList.isFilled(index));
+            assertEquals(pieces[index], fromBitSet.isFilled(index));
+            assertEquals(pieces[index], fromMask.isFilled(index));
+        }
+    }
+
+    @Test
+    public void resizeClearsFlags() {
+        ArcSegments segments = new ArcSegments();
+        BitSet all = new BitSet();
+        all.set(0, 130);
+        segments.setFilled(all, 130);
+        segments.setFilled(new boolean[200]);
+        for (int index = 0; index < 200; index++) {
+            assertFalse(segments.isFilled(index));
+        }
+    }
+
+    @Test
+    public void clockwiseAngles() {
+        ArcSegments segments = new ArcSegments();
+        segments.setFilled(new boolean[]{true, false, true, false});
+        segments.updateAngles(50, 100);
+
+        float[] reachedStarts = {270f, 0f, 90f, 180f};
+        float[] reachedSweeps = {45f, 0f, 45f, 0f};
+        float[] outlineStarts = {315f, 0f, 135f, 180f};
+        float[] outlineSweeps = {45f, 90f, 45f, 90f};
+        for (int index = 0; index < segments.getCount(); index++) {
+            assertEquals(reachedStarts[index], segments.getReachedStart(index), DELTA);
+            assertEquals(reachedSweeps[index], segments.getReachedSweep(index), DELTA);
+            assertEquals(outlineStarts[index], segments.getOutlineStart(index), DELTA);
+            assertEquals(outlineSweeps[index], segments.getOutlineSweep(index), DELTA);
+        }
+    }
+
+    @Test
+    public void updateIsSkippedWhenProgressIsUnchanged() {
+        ArcSegments segments = new ArcSegments();
+        segments.setFilled(new boolean[]{true, false, true});
+        assertTrue(segments.updateAngles(30, 100));
+        assertFalse(segments.updateAngles(30, 100));
+        segments.setFilled(new boolean[]{true, true});
+        assertEquals(54f, segments.getReachedSweep(1), DELTA);
+    }
+
+    @Test
+    public void counterClockwiseAngles() {
+        ArcSegments segments = new ArcSegments();
+        segments.setFilled(1, 1L);
+        segments.updateAngles(-25, 100);
+
+        assertEquals(90f, segments.getReachedSweep(0), DELTA);
+        assertEquals(180f, segments.getReachedStart(0), DELTA);
+        assertEquals(ArcSegments.START_12, segments.getOutlineStart(0), DELTA);
+        assertEquals(270f, segments.getOutlineSweep(0), DELTA);
+    }
+
+    @Test
+    public void enforceBoundsKeepsProgressAtMax() {
+        assertEquals(42f, ArcSegments.enforceBounds(42f, 100f, 100), DELTA);
+        assertEquals(10f, ArcSegments.enforceBounds(42f, 110f, 100), DELTA);
+        assertTrue(ArcSegments.enforceBounds(0f, -30f, 100) < 0);
+    }
+}
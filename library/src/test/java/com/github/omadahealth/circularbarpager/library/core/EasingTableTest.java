@@ -0,0 +1,53 @@
+package com.github.omadahealth.circularbarpager.library.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class EasingTableTest {
+
+    private static final float DELTA = 0.001f;
+
+    @Test
+    public void tablesMatchTheirCurves() {
+        EasingTable.Curve cubic = new EasingTable.Curve() {
+            @Override
+            public float evaluate(float t) {
+                return t * t * t;
+            }
+        };
+        EasingTable table = EasingTable.create(cubic, 128);
+        for (int step = 0; step <= 1000; step++) {
+            float t = step / 1000f;
+            assertEquals(cubic.evaluate(t), table.getValue(t), DELTA);
+            assertEquals(3 * t * t, table.getSlope(t), 0.01f);
+        }
+    }
+
+    @Test
+    public void fractionsAreClamped() {
+        assertEquals(0f, EasingTable.QUAD_IN_OUT.getValue(-1f), DELTA);
+        assertEquals(1f, EasingTable.QUAD_IN_OUT.getValue(2f), DELTA);
+        assertEquals(0f, EasingTable.QUAD_IN_OUT.getValue(Float.NaN), DELTA);
+    }
+
+    @Test
+    public void commonCurvesStartAndEnd() {
+        EasingTable[] tables = {EasingTable.LINEAR, EasingTable.QUAD_IN, EasingTable.QUAD_OUT,
+                EasingTable.QUAD_IN_OUT, EasingTable.CUBIC_IN_OUT, EasingTable.SINE_IN_OUT, EasingTable.BACK_OUT};
+        for (EasingTable table : tables) {
+            assertEquals(0f, table.getValue(0), DELTA);
+            assertEquals(1f, table.getValue(1), DELTA);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void resolutionMustBePositive() {
+        EasingTable.create(new EasingTable.Curve() {
+            @Override
+            public float evaluate(float t) {
+                return t;
+            }
+        }, 0);
+    }
+}
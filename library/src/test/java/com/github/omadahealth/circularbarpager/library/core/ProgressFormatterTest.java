@@ -0,0 +1,84 @@
+package com.github.omadahealth.circularbarpager.library.core;
+
+import org.junit.Test;
+
+import java.math.RoundingMode;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProgressFormatterTest {
+
+    private final char[] mChars = new char[32];
+
+    private String format(ProgressFormatter formatter, float value) {
+        int length = formatter.format(value, mChars, 2);
+        assertEquals(formatter.getLength(formatter.round(value)), length);
+        return new String(mChars, 2, length);
+    }
+
+    @Test
+    public void integers() {
+        ProgressFormatter formatter = new ProgressFormatter();
+        assertEquals("0", format(formatter, 0));
+        assertEquals("42", format(formatter, 42.4f));
+        assertEquals("43", format(formatter, 42.5f));
+        assertEquals("100", format(formatter, 99.7f));
+        assertEquals("-7", format(formatter, -6.5f));
+        assertEquals("0", format(formatter, -0.2f));
+    }
+
+    @Test
+    public void decimals() {
+        ProgressFormatter formatter = new ProgressFormatter();
+        formatter.setDecimals(2);
+        assertEquals("0.00", format(formatter, 0));
+        assertEquals("0.05", format(formatter, 0.05f));
+        assertEquals("42.37", format(formatter, 42.371f));
+        assertEquals("-1.50", format(formatter, -1.5f));
+        formatter.setDecimals(1);
+        assertEquals("0.4", format(formatter, 0.35f));
+        assertEquals(424, formatter.round(42.37f));
+    }
+
+    @Test
+    public void roundingModes() {
+        ProgressFormatter formatter = new ProgressFormatter();
+        formatter.setRoundingMode(RoundingMode.HALF_EVEN);
+        assertEquals("2", format(formatter, 2.5f));
+        assertEquals("4", format(formatter, 3.5f));
+        formatter.setRoundingMode(RoundingMode.HALF_DOWN);
+        assertEquals("2", format(formatter, 2.5f));
+        assertEquals("3", format(formatter, 2.6f));
+        formatter.setRoundingMode(RoundingMode.DOWN);
+        assertEquals("2", format(formatter, 2.9f));
+        assertEquals("-2", format(formatter, -2.9f));
+        formatter.setRoundingMode(RoundingMode.FLOOR);
+        assertEquals("-3", format(formatter, -2.1f));
+        formatter.setRoundingMode(RoundingMode.CEILING);
+        assertEquals("3", format(formatter, 2.1f));
+        assertEquals("2", format(formatter, 2f));
+        formatter.setRoundingMode(RoundingMode.UP);
+        assertEquals("-3", format(formatter, -2.1f));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unnecessaryRoundingIsRejected() {
+        new ProgressFormatter().setRoundingMode(RoundingMode.UNNECESSARY);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyDecimalsAreRejected() {
+        new ProgressFormatter().setDecimals(ProgressFormatter.MAX_DECIMALS + 1);
+    }
+
+    @Test
+    public void symbols() {
+        ProgressFormatter formatter = new ProgressFormatter();
+        formatter.setDecimals(1);
+        formatter.setLocale(Locale.GERMANY);
+        assertEquals("-12,5", format(formatter, -12.5f));
+        formatter.setSymbols('\u0660', '\u066b', '-');
+        assertEquals("\u0664\u0662\u066b\u0665", format(formatter, 42.5f));
+    }
+}
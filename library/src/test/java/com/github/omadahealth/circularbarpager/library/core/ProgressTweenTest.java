@@ -0,0 +1,48 @@
+package com.github.omadahealth.circularbarpager.library.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProgressTweenTest {
+
+    private static final float DELTA = 0.001f;
+
+    @Test
+    public void reachesBothEnds() {
+        ProgressTween tween = new ProgressTween();
+        tween.set(10, 80, 0.05f, 500);
+        assertEquals(10f, tween.getValue(0), DELTA);
+        assertEquals(80f, tween.getValue(1), DELTA);
+        assertEquals(0f, tween.getVelocity(1, 500), DELTA);
+    }
+
+    @Test
+    public void startsWithTheGivenVelocity() {
+        ProgressTween tween = new ProgressTween();
+        tween.set(10, 80, 0.05f, 500);
+        assertEquals(0.05f, tween.getVelocity(0, 500), DELTA);
+    }
+
+    @Test
+    public void retargetKeepsValueAndVelocity() {
+        ProgressTween tween = new ProgressTween();
+        tween.set(0, 100, 0, 1000);
+        float value = tween.getValue(0.3f);
+        float velocity = tween.getVelocity(0.3f, 1000);
+
+        ProgressTween retargeted = new ProgressTween();
+        retargeted.set(value, 20, velocity, 400);
+        assertEquals(value, retargeted.getValue(0), DELTA);
+        assertEquals(velocity, retargeted.getVelocity(0, 400), DELTA);
+        assertEquals(20f, retargeted.getValue(1), DELTA);
+    }
+
+    @Test
+    public void withoutVelocityIsQuadraticEaseInOut() {
+        ProgressTween tween = new ProgressTween();
+        tween.set(0, 100, 0, 1000);
+        assertEquals(50f, tween.getValue(0.5f), DELTA);
+        assertEquals(8f, tween.getValue(0.2f), DELTA);
+    }
+}
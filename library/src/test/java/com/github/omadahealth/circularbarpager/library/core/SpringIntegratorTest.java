@@ -0,0 +1,60 @@
+package com.github.omadahealth.circularbarpager.library.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpringIntegratorTest {
+
+    private static final float DELTA = 0.01f;
+
+    @Test
+    public void settlesExactlyOnTarget() {
+        SpringIntegrator spring = new SpringIntegrator();
+        spring.setState(0, 0);
+        spring.setTarget(75);
+        int frames = 0;
+        while (spring.advance(16)) {
+            frames++;
+            assertTrue("The spring never settled", frames < 1000);
+        }
+        assertEquals(75f, spring.getPosition(), 0f);
+        assertEquals(0f, spring.getVelocity(), 0f);
+        assertTrue(spring.isAtRest());
+        assertFalse(spring.advance(16));
+    }
+
+    @Test
+    public void droppedFramesFollowTheSamePath() {
+        SpringIntegrator smooth = new SpringIntegrator();
+        smooth.setState(0, 50);
+        smooth.setTarget(100);
+        SpringIntegrator dropped = new SpringIntegrator();
+        dropped.setState(0, 50);
+        dropped.setTarget(100);
+
+        for (int frame = 0; frame < 6; frame++) {
+            smooth.advance(16);
+        }
+        dropped.advance(96);
+        assertEquals(smooth.getPosition(), dropped.getPosition(), DELTA);
+        assertEquals(smooth.getVelocity(), dropped.getVelocity(), DELTA);
+    }
+
+    @Test
+    public void criticalDampingDoesNotOvershoot() {
+        SpringIntegrator spring = new SpringIntegrator();
+        spring.setState(0, 0);
+        spring.setTarget(100);
+        while (spring.advance(16)) {
+            assertTrue(spring.getPosition() <= 100f);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stiffnessMustBePositive() {
+        new SpringIntegrator().setSpring(0, 1);
+    }
+}
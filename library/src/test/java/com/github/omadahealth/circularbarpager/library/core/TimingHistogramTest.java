@@ -0,0 +1,50 @@
+package com.github.omadahealth.circularbarpager.library.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimingHistogramTest {
+
+    @Test
+    public void durationsFallInPowerOfTwoBuckets() {
+        assertEquals(0, TimingHistogram.getBucket(0));
+        assertEquals(0, TimingHistogram.getBucket(1023));
+        assertEquals(1, TimingHistogram.getBucket(1024));
+        assertEquals(1, TimingHistogram.getBucket(2047));
+        assertEquals(2, TimingHistogram.getBucket(2048));
+        assertEquals(TimingHistogram.BUCKET_COUNT - 1, TimingHistogram.getBucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentilesAreBoundedByTheirBucket() {
+        TimingHistogram histogram = new TimingHistogram();
+        for (int sample = 0; sample < 90; sample++) {
+            histogram.record(3000);
+        }
+        for (int sample = 0; sample < 10; sample++) {
+            histogram.record(1000000);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(4096, histogram.getPercentile(50));
+        assertEquals(4096, histogram.getPercentile(90));
+        assertEquals(1000000, histogram.getPercentile(99));
+        assertEquals(3000, histogram.getMin());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals((90 * 3000 + 10 * 1000000) / 100, histogram.getMean());
+    }
+
+    @Test
+    public void copyAndReset() {
+        TimingHistogram histogram = new TimingHistogram();
+        histogram.record(5000);
+        TimingHistogram copy = new TimingHistogram();
+        histogram.copyTo(copy);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(1, copy.getCount());
+        assertTrue(copy.getPercentile(50) >= 5000);
+    }
+}